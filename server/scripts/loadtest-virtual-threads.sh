@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Compares concurrent-request throughput with and without the "virtual" profile against a local
+# Postgres (jdbc:postgresql://localhost:5432/flux, see application-loadtest.properties).
+#
+#   scripts/loadtest-virtual-threads.sh [USER_ID] [CONCURRENCY] [REQUESTS]
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+USER_ID=${1:-1}
+CONCURRENCY=${2:-400}
+REQUESTS=${3:-20000}
+URL="http://localhost:8080/api/payments/user/${USER_ID}?size=50"
+
+./mvnw -q -DskipTests package test-compile
+JAR=$(ls target/*.jar | grep -v original | head -n 1)
+
+run() {
+  local profiles=$1
+  java -jar "$JAR" --spring.profiles.active="$profiles" > "target/loadtest-${profiles//,/-}.log" 2>&1 &
+  local pid=$!
+  until curl -sf http://localhost:8080/health-check > /dev/null; do sleep 1; done
+  # warm up, then measure
+  java -cp target/test-classes com.flux.server.loadtest.LoadDriver "$URL" "$CONCURRENCY" 2000 > /dev/null
+  echo -n "[$profiles] "
+  java -cp target/test-classes com.flux.server.loadtest.LoadDriver "$URL" "$CONCURRENCY" "$REQUESTS"
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+}
+
+run loadtest
+run loadtest,virtual
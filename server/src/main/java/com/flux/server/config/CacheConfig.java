@@ -0,0 +1,19 @@
+package com.flux.server.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Caches are Caffeine-backed; size, TTL and stats recording are set by spring.cache.caffeine.spec
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Keyed by "<userId>:<yyyy-MM>"
+    public static final String BUDGETS = "budgets";
+    public static final String BALANCES = "balances";
+    // Per-day/per-category totals of a closed month
+    public static final String ANALYTICS = "analytics";
+    // User profiles (UserDTO) by id and by email
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+}
@@ -2,22 +2,38 @@ package com.flux.server.controller;
 
 
 import com.flux.server.dto.BalanceDto;
+import com.flux.server.dto.BulkPaymentResultDto;
 import com.flux.server.dto.PaymentDTO;
+import com.flux.server.dto.PaymentPageDto;
+import com.flux.server.dto.SpendingAnalyticsDto;
 import com.flux.server.service.PaymentService;
+import com.flux.server.utils.EpochDateJson;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/payments")
 @RequiredArgsConstructor
 public class PaymentController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 500;
+    private static final int MAX_BULK_ROWS = 5000;
+
     private final PaymentService paymentService;
+    private final EpochDateJson epochDateJson;
 
 
     @PostMapping()
@@ -26,21 +42,99 @@ public class PaymentController {
 
     }
 
+    // 202 once the payment is journaled, 503 while the write-behind queue is full; synchronous when it is disabled
+    @PostMapping("/async")
+    public ResponseEntity<PaymentDTO> submitPayment(@RequestBody PaymentDTO paymentDTO) {
+        try {
+            PaymentDTO accepted = paymentService.submitPayment(paymentDTO);
+            if (accepted == null) {
+                return ResponseEntity.ok(paymentService.addPayment(paymentDTO));
+            }
+            return ResponseEntity.accepted().body(accepted);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+    }
+
+    // 413 over MAX_BULK_ROWS rows; larger imports are sent in several requests
+    @PostMapping("/user/{userId}/bulk")
+    public ResponseEntity<List<BulkPaymentResultDto>> addPayments(@PathVariable Long userId,
+                                                                  @RequestBody List<PaymentDTO> paymentDTOs) {
+        if (paymentDTOs.size() > MAX_BULK_ROWS) {
+            return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(paymentService.addPayments(userId, paymentDTOs));
+    }
+
+    // dates=epoch writes timestamps as epoch milliseconds instead of ISO-8601, read in the server's time zone
+    // (see EpochDateJson), so the values shift if the host's zone changes
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PaymentDTO>> getUserPayment(@PathVariable Long userId ,
-                                                           @RequestParam(defaultValue = "0") int page , @RequestParam(defaultValue = "5") int size) {
+    public ResponseEntity<?> getUserPayment(@PathVariable Long userId ,
+                                            @RequestParam(defaultValue = "0") int page , @RequestParam(defaultValue = "5") int size,
+                                            @RequestParam(defaultValue = "iso") String dates) {
+        boolean epoch = dates.equalsIgnoreCase("epoch");
+        if (!epoch && !dates.equalsIgnoreCase("iso")) {
+            return ResponseEntity.badRequest().build();
+        }
         Pageable pageable = PageRequest.of(page , size) ;
-        return ResponseEntity.ok(paymentService.getPaymentsByUser(userId , pageable));
+        List<PaymentDTO> payments = paymentService.getPaymentsByUser(userId , pageable);
+        if (epoch) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(epochDateJson.body(payments));
+        }
+        return ResponseEntity.ok(payments);
+    }
+
+
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<PaymentPageDto> getUserPaymentAfter(@PathVariable Long userId,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "5") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(paymentService.getPaymentsByUserAfter(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportUserPayments(@PathVariable Long userId,
+                                                                    @RequestParam(defaultValue = "csv") String format) {
+        boolean ndjson = format.equalsIgnoreCase("ndjson");
+        if (!ndjson && !format.equalsIgnoreCase("csv")) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> paymentService.exportPayments(userId, ndjson, out);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"payments-" + userId + (ndjson ? ".ndjson" : ".csv") + "\"")
+                .body(body);
+    }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<PaymentDTO> deletePayment(@PathVariable Long id) {
         return ResponseEntity.ok(paymentService.deletePayment(id));
     }
 
+    // to is exclusive: from=2026-01-01&to=2026-04-01 covers January to March
+    @GetMapping("/analytics/{userId}")
+    public ResponseEntity<SpendingAnalyticsDto> getSpendingAnalytics(@PathVariable Long userId,
+                                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                     @RequestParam(defaultValue = "day") String granularity) {
+        boolean weekly = granularity.equalsIgnoreCase("week");
+        if ((!weekly && !granularity.equalsIgnoreCase("day")) || !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(paymentService.getSpendingAnalytics(userId, from, to, weekly));
+    }
+
     @GetMapping("/balance/{userId}")
-    public ResponseEntity<BalanceDto> getUserBalance(@PathVariable Long userId , @RequestParam String month) {
+    public ResponseEntity<BalanceDto> getUserBalance(@PathVariable Long userId , @RequestParam YearMonth month) {
         return ResponseEntity.ok(paymentService.getUserBalance(userId ,month));
     }
 
@@ -1,8 +1,11 @@
 package com.flux.server.controller;
 
+import com.flux.server.dto.BillingRunDto;
 import com.flux.server.dto.SubscriptionDTO;
 import com.flux.server.service.SubscriptionService;
+import com.flux.server.utils.EpochDateJson;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +17,7 @@ import java.util.List;
 public class SubscriptionController {
 
     private final SubscriptionService subscriptionService;
+    private final EpochDateJson epochDateJson;
 
     @PostMapping
     public ResponseEntity<SubscriptionDTO> addSubscription(@RequestBody SubscriptionDTO subscriptionDTO) {
@@ -31,14 +35,24 @@ public class SubscriptionController {
         return ResponseEntity.noContent().build();
     }
 
+    // dates=epoch writes timestamps as epoch milliseconds instead of ISO-8601, read in the server's time zone
+    // (see EpochDateJson), so the values shift if the host's zone changes
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<SubscriptionDTO>> getSubscriptionsByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(subscriptionService.getSubscriptionsByUser(userId));
+    public ResponseEntity<?> getSubscriptionsByUser(@PathVariable Long userId,
+                                                    @RequestParam(defaultValue = "iso") String dates) {
+        boolean epoch = dates.equalsIgnoreCase("epoch");
+        if (!epoch && !dates.equalsIgnoreCase("iso")) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<SubscriptionDTO> subscriptions = subscriptionService.getSubscriptionsByUser(userId);
+        if (epoch) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(epochDateJson.body(subscriptions));
+        }
+        return ResponseEntity.ok(subscriptions);
     }
 
     @PostMapping("/process-due")
-    public ResponseEntity<String> triggerProcessDue() {
-        subscriptionService.processRecurringPayments();
-        return ResponseEntity.ok("Successfully processed due subscriptions.");
+    public ResponseEntity<BillingRunDto> triggerProcessDue() {
+        return ResponseEntity.ok(subscriptionService.processRecurringPayments());
     }
 }
@@ -1,11 +1,14 @@
 package com.flux.server.controller;
 
 import com.flux.server.dto.BudgetDto;
+import com.flux.server.dto.BudgetStatusDto;
 import com.flux.server.dto.UserDTO;
 import com.flux.server.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.YearMonth;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/user")
@@ -13,6 +16,11 @@ public class UserController {
 
     private final UserService userService;
 
+    @GetMapping("/{id}/profile")
+    public UserDTO getUser(@PathVariable Long id) {
+        return userService.getUser(id);
+    }
+
     @PutMapping("/{id}")
     public UserDTO updateUserInfo(@PathVariable Long id, @RequestBody UserDTO userDTO) {
         return userService.updateUserInfo(id, userDTO);
@@ -25,9 +33,14 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public BudgetDto getBudget(@PathVariable Long userId , @RequestParam String month){
+    public BudgetDto getBudget(@PathVariable Long userId , @RequestParam YearMonth month){
         return userService.getBudget(userId , month) ;
     }
 
+    @GetMapping("/{userId}/budget-status")
+    public BudgetStatusDto getBudgetStatus(@PathVariable Long userId, @RequestParam YearMonth month) {
+        return userService.getBudgetStatus(userId, month);
+    }
+
 
 }
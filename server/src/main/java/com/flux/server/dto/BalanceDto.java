@@ -1,8 +1,12 @@
 package com.flux.server.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class BalanceDto {
     private Double monthlyCredit;
     private Double monthlyDebit;
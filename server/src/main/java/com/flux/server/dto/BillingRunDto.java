@@ -0,0 +1,18 @@
+package com.flux.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillingRunDto {
+    private int subscriptionsProcessed;
+    private int paymentsGenerated;
+    private long durationMillis;
+
+    public double getPaymentsPerSecond() {
+        return durationMillis == 0 ? paymentsGenerated : paymentsGenerated * 1000.0 / durationMillis;
+    }
+}
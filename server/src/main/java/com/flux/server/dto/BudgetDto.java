@@ -2,9 +2,11 @@ package com.flux.server.dto;
 
 import lombok.Data;
 
+import java.time.YearMonth;
+
 @Data
 public class BudgetDto {
     private Double amount;
-    private String month;
+    private YearMonth month;
     private Long user_id;
 }
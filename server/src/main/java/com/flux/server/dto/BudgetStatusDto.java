@@ -0,0 +1,25 @@
+package com.flux.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetStatusDto {
+    private YearMonth month;
+    private Double budget;
+    private Double spent;
+
+    public double getRemaining() {
+        return budget - spent;
+    }
+
+    // 0 when no budget is set for the month
+    public double getPercentUsed() {
+        return budget > 0 ? spent * 100.0 / budget : 0.0;
+    }
+}
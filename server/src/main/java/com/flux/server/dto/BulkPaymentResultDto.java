@@ -0,0 +1,17 @@
+package com.flux.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentResultDto {
+    // Position of the row in the request
+    private int index;
+    // Set when the row was stored
+    private Long id;
+    // Set when the row was rejected or its chunk failed to save
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.flux.server.dto;
+
+import com.flux.server.entity.PaymentType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTotalDto {
+    private String category;
+    private PaymentType type;
+    private Double total;
+    private Long count;
+}
@@ -1,10 +1,14 @@
 package com.flux.server.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.flux.server.entity.PaymentType;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
+// Null fields are left out of responses
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PaymentDTO {
 
     private Long id;
@@ -12,7 +16,7 @@ public class PaymentDTO {
     private Double amount;
     private String description;
     private String category ;
-    private String type;
+    private PaymentType type;
     private LocalDateTime date;
     private Long userId;
 
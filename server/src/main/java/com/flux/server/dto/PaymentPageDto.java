@@ -0,0 +1,16 @@
+package com.flux.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPageDto {
+    private List<PaymentDTO> items;
+    // Pass back as ?cursor= for the next page; null when there are no more rows
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.flux.server.dto;
+
+import com.flux.server.entity.PaymentType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodTotalDto {
+    // First day of the bucket (the day itself, or the Monday of the week)
+    private LocalDate period;
+    private PaymentType type;
+    private Double total;
+}
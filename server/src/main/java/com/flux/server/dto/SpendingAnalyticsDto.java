@@ -0,0 +1,15 @@
+package com.flux.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingAnalyticsDto {
+    private List<CategoryTotalDto> categories;
+    private List<PeriodTotalDto> periods;
+}
@@ -1,17 +1,22 @@
 package com.flux.server.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.flux.server.entity.BillingCycle;
+import com.flux.server.entity.SubscriptionStatus;
 import lombok.Data;
 import java.time.LocalDateTime;
 
+// Null fields are left out of responses
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class SubscriptionDTO {
     private Long id;
     private String title;
     private Double amount;
     private String category;
-    private String billingCycle;
+    private BillingCycle billingCycle;
     private LocalDateTime nextBillingDate;
-    private String status;
+    private SubscriptionStatus status;
     private Long userId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,8 @@
+package com.flux.server.entity;
+
+// Persisted by ordinal (smallint): only ever append new constants
+public enum BillingCycle {
+    WEEKLY,
+    MONTHLY,
+    YEARLY
+}
@@ -10,6 +10,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 
 @Entity
 @Data
@@ -25,8 +26,9 @@ public class Budget {
     @Column(nullable = false)
     private Double amount;
 
+    @Convert(converter = YearMonthConverter.class)
     @Column(nullable = false)
-    private String month;
+    private YearMonth month;
 
     @CreationTimestamp
     @Column(updatable = false)
@@ -35,7 +37,7 @@ public class Budget {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 }
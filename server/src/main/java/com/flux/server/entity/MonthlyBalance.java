@@ -0,0 +1,41 @@
+package com.flux.server.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Running credit/debit totals per user and month (first day of the month), kept in step with the payment table
+ * so the balance endpoint is a primary-key lookup instead of an aggregate scan.
+ */
+@Entity
+@Data
+@IdClass(MonthlyBalance.Key.class)
+@Table(name = "monthly_balance")
+public class MonthlyBalance {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    private LocalDate month;
+
+    @Column(nullable = false)
+    private Double credit;
+
+    @Column(nullable = false)
+    private Double debit;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate month;
+    }
+}
@@ -4,6 +4,8 @@ package com.flux.server.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -11,8 +13,10 @@ import java.time.LocalDateTime;
 @Data
 public class Payment {
 
+    // Sequence ids (fetched 50 at a time) let Hibernate batch inserts, which IDENTITY prevents
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payment_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -21,8 +25,10 @@ public class Payment {
     @Column(nullable = false)
     private Double amount;
 
+    @Enumerated(EnumType.ORDINAL)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
     @Column(nullable = false)
-    private String type;
+    private PaymentType type;
 
     private String description;
 
@@ -32,7 +38,7 @@ public class Payment {
     @Column(nullable = false)
     private LocalDateTime date;
 
-    @ManyToOne()
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -0,0 +1,7 @@
+package com.flux.server.entity;
+
+// Persisted by ordinal (smallint): only ever append new constants
+public enum PaymentType {
+    CREDIT,
+    DEBIT
+}
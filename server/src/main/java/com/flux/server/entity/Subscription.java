@@ -3,7 +3,9 @@ package com.flux.server.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -24,16 +26,20 @@ public class Subscription {
     @Column(nullable = false)
     private String category;
 
+    @Enumerated(EnumType.ORDINAL)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
     @Column(nullable = false)
-    private String billingCycle; // WEEKLY, MONTHLY, YEARLY
+    private BillingCycle billingCycle;
 
     @Column(nullable = false)
     private LocalDateTime nextBillingDate;
 
+    @Enumerated(EnumType.ORDINAL)
+    @JdbcTypeCode(SqlTypes.SMALLINT)
     @Column(nullable = false)
-    private String status; // ACTIVE, PAUSED, CANCELLED
+    private SubscriptionStatus status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
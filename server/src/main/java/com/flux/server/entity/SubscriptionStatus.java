@@ -0,0 +1,9 @@
+package com.flux.server.entity;
+
+// Persisted by ordinal (smallint): only ever append new constants. ACTIVE (0) is also
+// hard-coded in SubscriptionRepository.claimDueChunk and the idx_subscription_active_due predicate.
+public enum SubscriptionStatus {
+    ACTIVE,
+    PAUSED,
+    CANCELLED
+}
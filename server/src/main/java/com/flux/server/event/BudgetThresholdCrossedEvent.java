@@ -0,0 +1,10 @@
+package com.flux.server.event;
+
+import java.time.YearMonth;
+
+/**
+ * Published when a user's spending for a month moves up past a fraction of that month's budget
+ * (threshold 0.8 = 80%, 1.0 = 100%).
+ */
+public record BudgetThresholdCrossedEvent(Long userId, YearMonth month, double threshold, double spent, double budget) {
+}
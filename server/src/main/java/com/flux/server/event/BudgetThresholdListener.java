@@ -0,0 +1,25 @@
+package com.flux.server.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class BudgetThresholdListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetThresholdListener.class);
+    private final MeterRegistry meterRegistry;
+
+    // Only once the spending that caused it has been committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThresholdCrossed(BudgetThresholdCrossedEvent event) {
+        log.info("User {} reached {}% of the {} budget: spent {} of {}", event.userId(),
+                Math.round(event.threshold() * 100), event.month(), event.spent(), event.budget());
+        meterRegistry.counter("flux.budget.threshold.crossed",
+                "threshold", String.valueOf(Math.round(event.threshold() * 100))).increment();
+    }
+}
@@ -0,0 +1,27 @@
+package com.flux.server.mapper;
+
+import com.flux.server.dto.BudgetDto;
+import com.flux.server.entity.Budget;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BudgetMapper {
+
+    public BudgetDto toDto(Budget budget) {
+        BudgetDto dto = new BudgetDto();
+        dto.setAmount(budget.getAmount());
+        dto.setMonth(budget.getMonth());
+        if (budget.getUser() != null) {
+            dto.setUser_id(budget.getUser().getId());
+        }
+        return dto;
+    }
+
+    // The user is resolved and set by the caller
+    public Budget toEntity(BudgetDto dto) {
+        Budget budget = new Budget();
+        budget.setAmount(dto.getAmount());
+        budget.setMonth(dto.getMonth());
+        return budget;
+    }
+}
@@ -0,0 +1,36 @@
+package com.flux.server.mapper;
+
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.Payment;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaymentMapper {
+
+    public PaymentDTO toDto(Payment payment) {
+        PaymentDTO dto = new PaymentDTO();
+        dto.setId(payment.getId());
+        dto.setTitle(payment.getTitle());
+        dto.setAmount(payment.getAmount());
+        dto.setDescription(payment.getDescription());
+        dto.setCategory(payment.getCategory());
+        dto.setType(payment.getType());
+        dto.setDate(payment.getDate());
+        if (payment.getUser() != null) {
+            dto.setUserId(payment.getUser().getId());
+        }
+        return dto;
+    }
+
+    // The user is resolved and set by the caller
+    public Payment toEntity(PaymentDTO dto) {
+        Payment payment = new Payment();
+        payment.setTitle(dto.getTitle());
+        payment.setAmount(dto.getAmount());
+        payment.setDescription(dto.getDescription());
+        payment.setCategory(dto.getCategory());
+        payment.setType(dto.getType());
+        payment.setDate(dto.getDate());
+        return payment;
+    }
+}
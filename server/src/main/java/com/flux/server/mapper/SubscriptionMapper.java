@@ -0,0 +1,38 @@
+package com.flux.server.mapper;
+
+import com.flux.server.dto.SubscriptionDTO;
+import com.flux.server.entity.Subscription;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SubscriptionMapper {
+
+    public SubscriptionDTO toDto(Subscription subscription) {
+        SubscriptionDTO dto = new SubscriptionDTO();
+        dto.setId(subscription.getId());
+        dto.setTitle(subscription.getTitle());
+        dto.setAmount(subscription.getAmount());
+        dto.setCategory(subscription.getCategory());
+        dto.setBillingCycle(subscription.getBillingCycle());
+        dto.setNextBillingDate(subscription.getNextBillingDate());
+        dto.setStatus(subscription.getStatus());
+        if (subscription.getUser() != null) {
+            dto.setUserId(subscription.getUser().getId());
+        }
+        dto.setCreatedAt(subscription.getCreatedAt());
+        dto.setUpdatedAt(subscription.getUpdatedAt());
+        return dto;
+    }
+
+    // The user is resolved and set by the caller; timestamps are managed by Hibernate
+    public Subscription toEntity(SubscriptionDTO dto) {
+        Subscription subscription = new Subscription();
+        subscription.setTitle(dto.getTitle());
+        subscription.setAmount(dto.getAmount());
+        subscription.setCategory(dto.getCategory());
+        subscription.setBillingCycle(dto.getBillingCycle());
+        subscription.setNextBillingDate(dto.getNextBillingDate());
+        subscription.setStatus(dto.getStatus());
+        return subscription;
+    }
+}
@@ -0,0 +1,21 @@
+package com.flux.server.mapper;
+
+import com.flux.server.dto.UserDTO;
+import com.flux.server.entity.User;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserMapper {
+
+    public UserDTO toDto(User user) {
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setEmail(user.getEmail());
+        dto.setUsername(user.getUsername());
+        dto.setName(user.getName());
+        dto.setPictureUrl(user.getPictureUrl());
+        dto.setPhoneNumber(user.getPhoneNumber());
+        dto.setCreatedAt(user.getCreatedAt());
+        return dto;
+    }
+}
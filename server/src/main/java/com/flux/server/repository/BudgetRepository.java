@@ -4,9 +4,12 @@ import com.flux.server.entity.Budget;
 import com.flux.server.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.YearMonth;
 import java.util.Optional;
 
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
 
-    Optional<Budget> findByUserAndMonth(User user, String Month);
+    Optional<Budget> findByUserAndMonth(User user, YearMonth month);
+
+    Optional<Budget> findByUserIdAndMonth(Long userId, YearMonth month);
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.flux.server.repository;
+
+import com.flux.server.entity.MonthlyBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface MonthlyBalanceRepository extends JpaRepository<MonthlyBalance, MonthlyBalance.Key> {
+
+    // Atomic increment (use negative deltas to subtract); creates the row on first write for the month.
+    // month is the first day of the month.
+    @Modifying
+    @Query(value = "INSERT INTO monthly_balance (user_id, month, credit, debit) VALUES (:userId, :month, :credit, :debit) " +
+            "ON CONFLICT (user_id, month) DO UPDATE SET credit = monthly_balance.credit + EXCLUDED.credit, " +
+            "debit = monthly_balance.debit + EXCLUDED.debit", nativeQuery = true)
+    void addToMonth(@Param("userId") Long userId, @Param("month") LocalDate month,
+                    @Param("credit") Double credit, @Param("debit") Double debit);
+
+    @Query(value = "SELECT debit FROM monthly_balance WHERE user_id = :userId AND month = :month", nativeQuery = true)
+    Double findDebit(@Param("userId") Long userId, @Param("month") LocalDate month);
+}
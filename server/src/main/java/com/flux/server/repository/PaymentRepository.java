@@ -1,23 +1,60 @@
 package com.flux.server.repository;
 
+import com.flux.server.dto.BalanceDto;
+import com.flux.server.dto.CategoryTotalDto;
+import com.flux.server.dto.PeriodTotalDto;
 import com.flux.server.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment , Long> {
 
     List<Payment> findByUserIdOrderByDateDesc(Long userId , Pageable pageable);
 
-    //  Monthly Stats
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.user.id = :userId AND p.type = 'CREDIT' AND p.date BETWEEN :startDate AND :endDate")
-    Double getMonthlyCredit(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    // Keyset pages, served by idx_payment_user_date_id_covering
+    List<Payment> findByUserIdOrderByDateDescIdDesc(Long userId, Limit limit);
 
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.user.id = :userId AND p.type = 'DEBIT' AND p.date BETWEEN :startDate AND :endDate")
-    Double getMonthlyDebit(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT p FROM Payment p WHERE p.user.id = :userId AND (p.date, p.id) < (:date, :id) ORDER BY p.date DESC, p.id DESC")
+    List<Payment> findPageAfter(@Param("userId") Long userId, @Param("date") LocalDateTime date, @Param("id") Long id, Limit limit);
 
-}
\ No newline at end of file
+    // Forward-only read of a user's whole history for export; rows are fetched from the cursor 500 at a time
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p WHERE p.user.id = :userId ORDER BY p.date DESC, p.id DESC")
+    Stream<Payment> streamByUserId(@Param("userId") Long userId);
+
+    // Spending analytics: O(groups) rows back, not O(payments)
+    @Query("SELECT new com.flux.server.dto.CategoryTotalDto(p.category, p.type, SUM(p.amount), COUNT(p)) " +
+            "FROM Payment p WHERE p.user.id = :userId AND p.date >= :startDate AND p.date < :endDate " +
+            "GROUP BY p.category, p.type")
+    List<CategoryTotalDto> getCategoryTotals(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT new com.flux.server.dto.PeriodTotalDto(CAST(p.date AS LocalDate), p.type, SUM(p.amount)) " +
+            "FROM Payment p WHERE p.user.id = :userId AND p.date >= :startDate AND p.date < :endDate " +
+            "GROUP BY CAST(p.date AS LocalDate), p.type")
+    List<PeriodTotalDto> getDailyTotals(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    // Monthly stats: credit and debit in one pass; end date is exclusive
+    @Query("SELECT new com.flux.server.dto.BalanceDto(" +
+            "COALESCE(SUM(CASE WHEN p.type = com.flux.server.entity.PaymentType.CREDIT THEN p.amount ELSE 0.0 END), 0.0), " +
+            "COALESCE(SUM(CASE WHEN p.type = com.flux.server.entity.PaymentType.DEBIT THEN p.amount ELSE 0.0 END), 0.0)) " +
+            "FROM Payment p WHERE p.user.id = :userId AND p.date >= :startDate AND p.date < :endDate")
+    BalanceDto getMonthlyBalance(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    // Reserves the id block (hi - 49 .. hi) the same way Hibernate's pooled optimizer does for Payment
+    @Query(value = "SELECT nextval('payment_seq')", nativeQuery = true)
+    long nextIdBlock();
+
+}
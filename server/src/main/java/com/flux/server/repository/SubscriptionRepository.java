@@ -1,11 +1,40 @@
 package com.flux.server.repository;
 
 import com.flux.server.entity.Subscription;
+import com.flux.server.entity.SubscriptionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
     List<Subscription> findByUserIdOrderByNextBillingDateAsc(Long userId);
-    List<Subscription> findByStatusAndNextBillingDateBefore(String status, LocalDateTime date);
+    List<Subscription> findByStatusAndNextBillingDateBefore(SubscriptionStatus status, LocalDateTime date);
+
+    // Claims a chunk of due subscriptions for the current transaction. Rows already locked by another
+    // worker or server instance are skipped instead of waited on, so concurrent runs never bill a row twice.
+    // status = 0 (ACTIVE) is a literal so the planner can match the partial index idx_subscription_active_due.
+    // excluded holds ids that already failed in this run (never empty, so the NOT IN stays valid SQL).
+    @Query(value = "SELECT * FROM subscription WHERE status = 0 AND next_billing_date < :date " +
+            "AND id NOT IN (:excluded) ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Subscription> claimDueChunk(@Param("date") LocalDateTime date, @Param("limit") int limit,
+                                     @Param("excluded") Collection<Long> excluded);
+
+    // Same as claimDueChunk, restricted to the given ids (SubscriptionDueTimer bills what it saw fall due)
+    @Query(value = "SELECT * FROM subscription WHERE id IN (:ids) AND status = 0 AND next_billing_date < :date " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Subscription> claimDue(@Param("ids") Collection<Long> ids, @Param("date") LocalDateTime date);
+
+    // Active subscriptions falling due before the given time, overdue ones included; range scan of idx_subscription_active_due
+    @Query(value = "SELECT id AS \"id\", next_billing_date AS \"nextBillingDate\" FROM subscription " +
+            "WHERE status = 0 AND next_billing_date < :before", nativeQuery = true)
+    List<DueSubscription> findActiveDueBefore(@Param("before") LocalDateTime before);
+
+    interface DueSubscription {
+        Long getId();
+
+        LocalDateTime getNextBillingDate();
+    }
 }
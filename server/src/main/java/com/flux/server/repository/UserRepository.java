@@ -2,11 +2,20 @@ package com.flux.server.repository;
 
 import com.flux.server.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByUsername(String username);
+
+    // Never moves lastLoginAt backwards (e.g. a retried flush racing a newer one)
+    @Modifying
+    @Query("UPDATE User u SET u.lastLoginAt = :at WHERE u.id = :id AND (u.lastLoginAt IS NULL OR u.lastLoginAt < :at)")
+    int updateLastLoginAt(@Param("id") Long id, @Param("at") LocalDateTime at);
 }
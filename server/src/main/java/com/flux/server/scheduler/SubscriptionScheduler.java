@@ -1,5 +1,6 @@
 package com.flux.server.scheduler;
 
+import com.flux.server.dto.BillingRunDto;
 import com.flux.server.service.SubscriptionService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -19,8 +20,9 @@ public class SubscriptionScheduler {
     public void runRecurringPaymentProcessor() {
         log.info("Starting scheduled processing of recurring payments...");
         try {
-            subscriptionService.processRecurringPayments();
-            log.info("Completed scheduled processing of recurring payments.");
+            BillingRunDto run = subscriptionService.processRecurringPayments();
+            log.info("Completed scheduled processing of recurring payments: {} subscriptions, {} payments in {} ms.",
+                    run.getSubscriptionsProcessed(), run.getPaymentsGenerated(), run.getDurationMillis());
         } catch (Exception e) {
             log.error("Failed to process recurring payments", e);
         }
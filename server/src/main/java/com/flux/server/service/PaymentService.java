@@ -1,21 +1,46 @@
 package com.flux.server.service;
 
 import com.flux.server.dto.BalanceDto;
+import com.flux.server.dto.BulkPaymentResultDto;
 import com.flux.server.dto.PaymentDTO;
+import com.flux.server.dto.PaymentPageDto;
+import com.flux.server.dto.SpendingAnalyticsDto;
 import org.jspecify.annotations.Nullable;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 public interface PaymentService {
     @Nullable
     PaymentDTO addPayment(PaymentDTO paymentDTO);
 
+    // Journals the payment and acknowledges it with its id; it is committed shortly after by a background writer.
+    // Returns null when the write-behind path is disabled.
+    @Nullable
+    PaymentDTO submitPayment(PaymentDTO paymentDTO);
+
+    // Stores many payments for one user; the result has one entry per input row, in order
+    List<BulkPaymentResultDto> addPayments(Long userId, List<PaymentDTO> paymentDTOs);
+
     @Nullable
     PaymentDTO deletePayment(Long id);
 
     List<PaymentDTO> getPaymentsByUser(Long userId  , Pageable pageable);
 
+    // Keyset pagination: newest first, resuming after the position encoded in cursor (null for the first page).
+    // Throws IllegalArgumentException for a malformed cursor.
+    PaymentPageDto getPaymentsByUserAfter(Long userId, @Nullable String cursor, int size);
+
+    // Streams the user's whole history to out as CSV, or NDJSON when ndjson is true
+    void exportPayments(Long userId, boolean ndjson, OutputStream out) throws IOException;
+
     @Nullable
-    BalanceDto getUserBalance(Long userId , String month);
+    BalanceDto getUserBalance(Long userId , YearMonth month);
+
+    // Totals per category and per day (or week) over [from, to)
+    SpendingAnalyticsDto getSpendingAnalytics(Long userId, LocalDate from, LocalDate to, boolean weekly);
 }
@@ -1,5 +1,6 @@
 package com.flux.server.service;
 
+import com.flux.server.dto.BillingRunDto;
 import com.flux.server.dto.SubscriptionDTO;
 import java.util.List;
 
@@ -8,5 +9,5 @@ public interface SubscriptionService {
     SubscriptionDTO updateSubscription(Long id, SubscriptionDTO subscriptionDTO);
     void deleteSubscription(Long id);
     List<SubscriptionDTO> getSubscriptionsByUser(Long userId);
-    void processRecurringPayments();
+    BillingRunDto processRecurringPayments();
 }
@@ -1,18 +1,24 @@
 package com.flux.server.service;
 
 import com.flux.server.dto.BudgetDto;
+import com.flux.server.dto.BudgetStatusDto;
 import com.flux.server.dto.UserDTO;
 import com.flux.server.entity.User;
 
+import java.time.YearMonth;
 import java.util.Optional;
 
 public interface UserService {
     UserDTO handleGoogleLogin(String email, String name, String pictureUrl);
 
+    UserDTO getUser(Long id);
+
     UserDTO updateUserInfo(Long id, UserDTO userDTO);
 
 
     BudgetDto addBudget(BudgetDto budgetDto);
 
-    BudgetDto getBudget(Long userId, String month);
+    BudgetDto getBudget(Long userId, YearMonth month);
+
+    BudgetStatusDto getBudgetStatus(Long userId, YearMonth month);
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.flux.server.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The billing_ledger table: one row per billed (subscription, cycle date). Recording a batch of cycles reports
+ * which of them are new; the rows join the caller's transaction, so they commit or roll back together with the
+ * payments created for them.
+ */
+@Component
+@RequiredArgsConstructor
+public class BillingLedger {
+
+    private static final String INSERT_SQL = "INSERT INTO billing_ledger (subscription_id, cycle_date) VALUES (?, ?) "
+            + "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Index-aligned with cycles: true where the cycle was recorded now, false where it already was.
+    // Relies on per-row update counts, i.e. the driver's reWriteBatchedInserts must stay off.
+    public boolean[] record(List<Cycle> cycles) {
+        boolean[] fresh = new boolean[cycles.size()];
+        if (cycles.isEmpty()) {
+            return fresh;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, cycles, cycles.size(), (ps, cycle) -> {
+            ps.setLong(1, cycle.subscriptionId());
+            ps.setObject(2, cycle.date());
+        });
+        for (int i = 0; i < fresh.length; i++) {
+            fresh[i] = counts[0][i] != 0;
+        }
+        return fresh;
+    }
+
+    public record Cycle(Long subscriptionId, LocalDateTime date) {
+    }
+}
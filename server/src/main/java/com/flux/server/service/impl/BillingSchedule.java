@@ -0,0 +1,85 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.entity.BillingCycle;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Billing dates of a subscription, computed directly from its stored nextBillingDate instead of by repeated
+ * {@link RecurringBillingEngine#advanceBillingDate} calls, with which it agrees exactly. That includes month-end
+ * clamping: a day that does not exist in a shorter month is clamped and then stays clamped (Jan 31 -> Feb 28 ->
+ * Mar 28, and a yearly Feb 29 -> Feb 28), because the stored date is the only record of the billing day.
+ */
+final class BillingSchedule {
+
+    private BillingSchedule() {
+    }
+
+    /**
+     * The cycles owed before {@code now}, oldest first, and the date that becomes the new nextBillingDate.
+     * A null cycle bills monthly, as before.
+     */
+    static Missed missed(LocalDateTime start, BillingCycle cycle, LocalDateTime now) {
+        if (!start.isBefore(now)) {
+            return new Missed(List.of(), start);
+        }
+        // the plain unit count is at most one cycle too high or two too low (clamping only moves dates earlier)
+        long count = Math.max(0, unit(cycle).between(start, now) - 1);
+        while (dateAt(start, cycle, count).isBefore(now)) {
+            count++;
+        }
+
+        List<LocalDateTime> dates = new ArrayList<>((int) count);
+        for (long k = 0; k < count; k++) {
+            dates.add(dateAt(start, cycle, k));
+        }
+        return new Missed(dates, dateAt(start, cycle, count));
+    }
+
+    // The k-th billing date after start, in constant time
+    static LocalDateTime dateAt(LocalDateTime start, BillingCycle cycle, long k) {
+        if (k == 0) {
+            return start;
+        }
+        return switch (cycle == null ? BillingCycle.MONTHLY : cycle) {
+            case WEEKLY -> start.plusWeeks(k);
+            case MONTHLY -> {
+                LocalDateTime plain = start.plusMonths(k);
+                int day = start.getDayOfMonth();
+                yield day <= 28 ? plain : plain.withDayOfMonth(Math.min(day, shortestMonth(YearMonth.from(start), k)));
+            }
+            case YEARLY -> start.getMonth() == Month.FEBRUARY && start.getDayOfMonth() == 29
+                    ? start.minusDays(1).plusYears(k)
+                    : start.plusYears(k);
+        };
+    }
+
+    // Shortest month among the k months after from. Any 24 consecutive months include a 28-day February,
+    // so looking further never lowers it.
+    private static int shortestMonth(YearMonth from, long k) {
+        int shortest = 31;
+        for (int i = 1; i <= Math.min(k, 24); i++) {
+            shortest = Math.min(shortest, from.plusMonths(i).lengthOfMonth());
+        }
+        return shortest;
+    }
+
+    private static ChronoUnit unit(BillingCycle cycle) {
+        if (cycle == null) {
+            return ChronoUnit.MONTHS;
+        }
+        return switch (cycle) {
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+            case YEARLY -> ChronoUnit.YEARS;
+        };
+    }
+
+    record Missed(List<LocalDateTime> dates, LocalDateTime next) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.entity.Budget;
+import com.flux.server.event.BudgetThresholdCrossedEvent;
+import com.flux.server.repository.BudgetRepository;
+import com.flux.server.repository.MonthlyBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.Optional;
+
+/**
+ * Compares a month's running debit total (monthly_balance) with its budget whenever the total changes,
+ * and publishes a {@link BudgetThresholdCrossedEvent} for each threshold the change moved it past.
+ */
+@Component
+@RequiredArgsConstructor
+public class BudgetTracker {
+
+    private static final double[] THRESHOLDS = {0.8, 1.0};
+
+    private final BudgetRepository budgetRepository;
+    private final MonthlyBalanceRepository monthlyBalanceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Call after the delta has been applied to monthly_balance, in the same transaction
+    public void onDebitChanged(Long userId, YearMonth month, double delta) {
+        if (delta <= 0.0) {
+            return;
+        }
+        Optional<Budget> budget = budgetRepository.findByUserIdAndMonth(userId, month);
+        if (budget.isEmpty() || budget.get().getAmount() <= 0.0) {
+            return;
+        }
+        Double spent = monthlyBalanceRepository.findDebit(userId, month.atDay(1));
+        if (spent == null) {
+            return;
+        }
+
+        double limit = budget.get().getAmount();
+        double previous = spent - delta;
+        for (double threshold : THRESHOLDS) {
+            double boundary = limit * threshold;
+            if (previous < boundary && spent >= boundary) {
+                eventPublisher.publishEvent(new BudgetThresholdCrossedEvent(userId, month, threshold, spent, limit));
+            }
+        }
+    }
+}
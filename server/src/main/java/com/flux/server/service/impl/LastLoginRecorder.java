@@ -0,0 +1,66 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces lastLoginAt updates: logins only record the time in memory, and the latest time per user is
+ * written once per flush interval (and on shutdown). A user logging in repeatedly costs one UPDATE per
+ * interval instead of one per login.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginRecorder(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void record(Long userId) {
+        pending.merge(userId, LocalDateTime.now(), LastLoginRecorder::latest);
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.last-login-flush-ms:60000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, LocalDateTime> batch = new HashMap<>();
+        for (Long userId : pending.keySet()) {
+            LocalDateTime at = pending.remove(userId);
+            if (at != null) {
+                batch.put(userId, at);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(userRepository::updateLastLoginAt));
+        } catch (RuntimeException e) {
+            // keep them for the next flush, unless a newer login has been recorded meanwhile
+            batch.forEach((userId, at) -> pending.merge(userId, at, LastLoginRecorder::latest));
+            log.warn("Failed to write {} last-login times, retrying on the next flush", batch.size(), e);
+        }
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,31 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.repository.MonthlyBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Single entry point for "payments for (user, month) changed": applies the credit/debit delta to the
+ * monthly_balance rollup, evicts the month's cached balance and analytics, and checks budget thresholds.
+ * Used by single writes, bulk imports and recurring billing alike.
+ */
+@Component
+@RequiredArgsConstructor
+public class MonthlyBalanceRecorder {
+
+    private final MonthlyBalanceRepository monthlyBalanceRepository;
+    private final MonthlyCacheEvictor monthlyCacheEvictor;
+    private final BudgetTracker budgetTracker;
+
+    public void record(Long userId, YearMonth month, double credit, double debit) {
+        // analytics include every payment type, so evict even when credit/debit are unaffected
+        monthlyCacheEvictor.evictPaymentMonth(userId, month);
+        if (credit == 0.0 && debit == 0.0) {
+            return;
+        }
+        monthlyBalanceRepository.addToMonth(userId, month.atDay(1), credit, debit);
+        budgetTracker.onDebitChanged(userId, month, debit);
+    }
+}
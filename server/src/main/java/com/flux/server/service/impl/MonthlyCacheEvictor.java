@@ -0,0 +1,57 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+
+/**
+ * Evicts cached per-user monthly budget/balance entries when the underlying rows change. Inside a transaction
+ * the eviction waits for the commit, so reads on this instance that start after the commit see it. That is the
+ * whole guarantee: a @Cacheable read that loaded the old rows before the commit can still put them after the
+ * eviction, and other instances keep their own caches and are never told. Both are bounded by the cache TTL
+ * (spring.cache.caffeine.spec), which is kept short for that reason.
+ */
+@Component
+@RequiredArgsConstructor
+public class MonthlyCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    // Same format as the @Cacheable keys: "<userId>:<yyyy-MM>"
+    public static String key(Long userId, YearMonth month) {
+        return userId + ":" + month;
+    }
+
+    // Payments for this user and month changed: drop the month's balance and spending analytics
+    public void evictPaymentMonth(Long userId, YearMonth month) {
+        evict(CacheConfig.BALANCES, key(userId, month));
+        evict(CacheConfig.ANALYTICS, key(userId, month));
+    }
+
+    public void evictBudget(Long userId, YearMonth month) {
+        evict(CacheConfig.BUDGETS, key(userId, month));
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(key);
+                }
+            });
+        } else {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.config.CacheConfig;
+import com.flux.server.dto.SpendingAnalyticsDto;
+import com.flux.server.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+// Runs the grouped analytics queries; whole past months are cached until a payment in them changes
+@Component
+@RequiredArgsConstructor
+public class MonthlySpendingLoader {
+
+    private final PaymentRepository paymentRepository;
+
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, key = "#userId + ':' + #month")
+    public SpendingAnalyticsDto loadClosedMonth(Long userId, YearMonth month) {
+        return loadRange(userId, month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    // Day-level totals for [from, to)
+    public SpendingAnalyticsDto loadRange(Long userId, LocalDate from, LocalDate to) {
+        return new SpendingAnalyticsDto(
+                paymentRepository.getCategoryTotals(userId, from.atStartOfDay(), to.atStartOfDay()),
+                paymentRepository.getDailyTotals(userId, from.atStartOfDay(), to.atStartOfDay()));
+    }
+}
@@ -0,0 +1,144 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.BulkPaymentResultDto;
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.Payment;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.entity.User;
+import com.flux.server.mapper.PaymentMapper;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.utils.EncryptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores many payments for one user: the user is validated once, all titles/descriptions are encrypted in one
+ * parallel batch, and rows are inserted in chunks (one transaction and one set of JDBC batches per chunk).
+ * A chunk that fails to save only fails its own rows.
+ */
+@Component
+public class PaymentBulkImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentBulkImporter.class);
+
+    private final UserReferenceResolver userReferenceResolver;
+    private final PaymentRepository paymentRepository;
+    private final PaymentMapper paymentMapper;
+    private final EncryptionUtils encryptionUtils;
+    private final MonthlyBalanceRecorder monthlyBalanceRecorder;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public PaymentBulkImporter(UserReferenceResolver userReferenceResolver,
+                               PaymentRepository paymentRepository,
+                               PaymentMapper paymentMapper,
+                               EncryptionUtils encryptionUtils,
+                               MonthlyBalanceRecorder monthlyBalanceRecorder,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.payments.bulk-chunk-size:1000}") int chunkSize) {
+        this.userReferenceResolver = userReferenceResolver;
+        this.paymentRepository = paymentRepository;
+        this.paymentMapper = paymentMapper;
+        this.encryptionUtils = encryptionUtils;
+        this.monthlyBalanceRecorder = monthlyBalanceRecorder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BulkPaymentResultDto> importPayments(Long userId, List<PaymentDTO> rows) {
+        userReferenceResolver.requireExists(userId);
+
+        List<BulkPaymentResultDto> results = new ArrayList<>(rows.size());
+        List<Integer> accepted = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            String error = validate(rows.get(i));
+            results.add(new BulkPaymentResultDto(i, null, error));
+            if (error == null) {
+                accepted.add(i);
+            }
+        }
+
+        List<String> plain = new ArrayList<>(accepted.size() * 2);
+        for (int index : accepted) {
+            plain.add(rows.get(index).getTitle());
+            plain.add(rows.get(index).getDescription());
+        }
+        List<String> encrypted = encryptionUtils.encryptAll(plain);
+
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            int to = Math.min(accepted.size(), from + chunkSize);
+            List<Integer> chunk = accepted.subList(from, to);
+            int offset = from;
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        saveChunk(userId, rows, chunk, encrypted, offset, results));
+            } catch (RuntimeException e) {
+                log.warn("Bulk import chunk of {} payments for user {} failed", chunk.size(), userId, e);
+                for (int index : chunk) {
+                    results.get(index).setId(null);
+                    // the cause is logged above; its message can carry SQL and constraint names
+                    results.get(index).setError("Failed to save");
+                }
+            }
+        }
+        return results;
+    }
+
+    private void saveChunk(Long userId, List<PaymentDTO> rows, List<Integer> chunk, List<String> encrypted,
+                           int offset, List<BulkPaymentResultDto> results) {
+        User user = userReferenceResolver.reference(userId);
+        List<Payment> payments = new ArrayList<>(chunk.size());
+        Map<YearMonth, double[]> totalsByMonth = new HashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Payment payment = paymentMapper.toEntity(rows.get(chunk.get(i)));
+            payment.setUser(user);
+            payment.setTitle(encrypted.get((offset + i) * 2));
+            payment.setDescription(encrypted.get((offset + i) * 2 + 1));
+            payments.add(payment);
+
+            double[] totals = totalsByMonth.computeIfAbsent(YearMonth.from(payment.getDate()), m -> new double[2]);
+            totals[payment.getType() == PaymentType.CREDIT ? 0 : 1] += payment.getAmount();
+        }
+
+        paymentRepository.saveAll(payments);
+        paymentRepository.flush();
+        totalsByMonth.forEach((month, totals) -> monthlyBalanceRecorder.record(userId, month, totals[0], totals[1]));
+
+        for (int i = 0; i < chunk.size(); i++) {
+            results.get(chunk.get(i)).setId(payments.get(i).getId());
+        }
+    }
+
+    static String validate(PaymentDTO row) {
+        if (row == null) {
+            return "Row is empty";
+        }
+        if (row.getTitle() == null || row.getTitle().isEmpty()) {
+            return "Title is required";
+        }
+        if (row.getAmount() == null) {
+            return "Amount is required";
+        }
+        if (row.getType() == null) {
+            return "Type is required";
+        }
+        if (row.getCategory() == null || row.getCategory().isEmpty()) {
+            return "Category is required";
+        }
+        if (row.getDate() == null) {
+            return "Date is required";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,128 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.entity.Payment;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.utils.EncryptionUtils;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's full payment history as CSV or NDJSON straight to an output stream. Rows come from a
+ * server-side cursor and are detached once written, so memory use does not grow with the history size.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentExporter {
+
+    private static final String CSV_HEADER = "id,date,type,category,amount,title,description\n";
+
+    private final PaymentRepository paymentRepository;
+    private final EncryptionUtils encryptionUtils;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void export(Long userId, boolean ndjson, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (!ndjson) {
+            writer.write(CSV_HEADER);
+        }
+
+        try (Stream<Payment> payments = paymentRepository.streamByUserId(userId)) {
+            Iterator<Payment> it = payments.iterator();
+            while (it.hasNext()) {
+                Payment payment = it.next();
+                String title = encryptionUtils.decrypt(payment.getTitle());
+                String description = payment.getDescription() == null ? null : encryptionUtils.decrypt(payment.getDescription());
+
+                if (ndjson) {
+                    writeJsonLine(writer, payment, title, description);
+                } else {
+                    writeCsvLine(writer, payment, title, description);
+                }
+                entityManager.detach(payment);
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer w, Payment p, String title, String description) throws IOException {
+        w.write(String.valueOf(p.getId()));
+        w.write(',');
+        w.write(String.valueOf(p.getDate()));
+        w.write(',');
+        w.write(p.getType().name());
+        w.write(',');
+        w.write(csv(p.getCategory()));
+        w.write(',');
+        w.write(String.valueOf(p.getAmount()));
+        w.write(',');
+        w.write(csv(title));
+        w.write(',');
+        w.write(csv(description));
+        w.write('\n');
+    }
+
+    private static void writeJsonLine(Writer w, Payment p, String title, String description) throws IOException {
+        w.write("{\"id\":");
+        w.write(String.valueOf(p.getId()));
+        w.write(",\"date\":");
+        w.write(json(p.getDate() == null ? null : p.getDate().toString()));
+        w.write(",\"type\":");
+        w.write(json(p.getType().name()));
+        w.write(",\"category\":");
+        w.write(json(p.getCategory()));
+        w.write(",\"amount\":");
+        w.write(String.valueOf(p.getAmount()));
+        w.write(",\"title\":");
+        w.write(json(title));
+        w.write(",\"description\":");
+        w.write(json(description));
+        w.write("}\n");
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
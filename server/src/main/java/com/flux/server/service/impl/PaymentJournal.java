@@ -0,0 +1,297 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.entity.PaymentType;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of payments accepted by {@link PaymentWriteBehind} but not yet committed. Entries go to
+ * numbered segment files, one line each, and are forced to disk before {@link #append} returns. Once entries are
+ * in the database a commit marker line per id is appended to their segment, so a replay after a crash only hands
+ * back what was never committed: a committed payment the user has since deleted must not come back. A segment is
+ * deleted once it has been rolled over and every entry in it has been committed.
+ * <p>
+ * Entries the database refuses are moved to dead-letter.log in the same directory, in the segment line format,
+ * so they can be inspected and, once fixed, copied into a segment to be retried on the next start.
+ */
+class PaymentJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentJournal.class);
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final String NULL = "-";
+    private static final String COMMITTED = "+\t";
+    private static final String DEAD_LETTER = "dead-letter.log";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final List<Path> leftover;
+    private final List<Segment> replayed = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextIndex;
+    private Segment current;
+
+    PaymentJournal(Path directory, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            this.leftover = files.filter(PaymentJournal::isSegment).sorted().toList();
+        }
+        this.nextIndex = leftover.isEmpty() ? 0 : index(leftover.get(leftover.size() - 1)) + 1;
+        this.current = open();
+    }
+
+    /**
+     * Appends one entry and forces it to disk. The returned segment must be passed to {@link #committed} once
+     * the entry is in the database.
+     */
+    Segment append(Entry entry) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap(encode(entry).getBytes(StandardCharsets.UTF_8));
+        Segment segment;
+        lock.lock();
+        try {
+            if (current.size >= segmentBytes) {
+                roll();
+            }
+            segment = current;
+            segment.size += line.remaining();
+            try {
+                while (line.hasRemaining()) {
+                    segment.channel.write(line);
+                }
+            } catch (IOException e) {
+                // End the partial line, as replay() does, or the commit markers still to come for this segment's
+                // earlier entries would be appended to it and lost on replay. Then continue in a fresh segment.
+                try {
+                    segment.channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+                } catch (IOException newlineFailure) {
+                    e.addSuppressed(newlineFailure);
+                }
+                try {
+                    roll();
+                } catch (IOException rollFailure) {
+                    e.addSuppressed(rollFailure);
+                }
+                throw e;
+            }
+            segment.pending.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        // outside the lock, so concurrent appenders share one disk flush instead of queueing for their own
+        segment.channel.force(false);
+        return segment;
+    }
+
+    /**
+     * Marks entries of one segment as committed. The markers are forced to disk before the entries stop counting
+     * as pending; if they cannot be written the segment is kept, so its entries are at worst replayed, never lost.
+     */
+    void committed(Segment segment, List<Long> ids) {
+        StringBuilder markers = new StringBuilder(ids.size() * 16);
+        for (Long id : ids) {
+            markers.append(COMMITTED).append(id).append('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(markers.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            lock.lock();
+            try {
+                segment.size += bytes.remaining();
+                while (bytes.hasRemaining()) {
+                    segment.channel.write(bytes);
+                }
+            } finally {
+                lock.unlock();
+            }
+            segment.channel.force(false);
+        } catch (IOException e) {
+            log.error("Failed to mark {} payments committed in {}; they are replayed on the next start",
+                    ids.size(), segment.path.getFileName(), e);
+            return;
+        }
+        segment.pending.addAndGet(-ids.size());
+        deleteIfDone(segment);
+    }
+
+    /**
+     * Entries left uncommitted by a previous run, oldest first, each with the segment to pass to
+     * {@link #committed}. Unreadable (torn) lines are skipped; segments with nothing left to replay are deleted.
+     */
+    List<Journaled> replay() throws IOException {
+        List<Journaled> entries = new ArrayList<>();
+        for (Path path : leftover) {
+            byte[] content = Files.readAllBytes(path);
+            List<Entry> written = new ArrayList<>();
+            Set<Long> committed = new HashSet<>();
+            for (String line : new String(content, StandardCharsets.UTF_8).split("\n")) {
+                try {
+                    if (line.startsWith(COMMITTED)) {
+                        committed.add(Long.parseLong(line.substring(COMMITTED.length())));
+                    } else if (!line.isEmpty()) {
+                        written.add(decode(line));
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Skipping unreadable payment journal line in {}", path.getFileName());
+                }
+            }
+
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            Segment segment = new Segment(path, channel, content.length);
+            segment.sealed = true;
+            if (content.length > 0 && content[content.length - 1] != '\n') {
+                // end the torn line, so the next marker starts a line of its own
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+                segment.size++;
+            }
+            for (Entry entry : written) {
+                if (!committed.contains(entry.id())) {
+                    segment.pending.incrementAndGet();
+                    entries.add(new Journaled(entry, segment));
+                }
+            }
+            replayed.add(segment);
+            deleteIfDone(segment);
+        }
+        return entries;
+    }
+
+    // Forced to disk; on failure the caller keeps the entry in the journal instead
+    void deadLetter(Entry entry) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap(encode(entry).getBytes(StandardCharsets.UTF_8));
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            channel.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The current segment is removed too if nothing in it is still waiting, so a clean stop leaves no journal
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : replayed) {
+                closeUnlessDeleted(segment);
+            }
+            current.sealed = true;
+            if (current.pending.get() == 0) {
+                deleteIfDone(current);
+            } else {
+                closeUnlessDeleted(current);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        Segment full = current;
+        current = open();
+        full.sealed = true;
+        deleteIfDone(full);
+    }
+
+    private Segment open() throws IOException {
+        Path path = directory.resolve(String.format("%s%010d%s", PREFIX, nextIndex++, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        return new Segment(path, channel, channel.size());
+    }
+
+    private static void deleteIfDone(Segment segment) {
+        if (!segment.sealed || segment.pending.get() != 0 || !segment.deleted.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            // harmless: its entries are all marked committed and a replay skips them
+            log.warn("Failed to delete payment journal segment {}", segment.path.getFileName(), e);
+        }
+    }
+
+    private static void closeUnlessDeleted(Segment segment) throws IOException {
+        if (!segment.deleted.get()) {
+            segment.channel.close();
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long index(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // Tab-separated; title/description are already base64 ciphertext, category is base64-encoded here
+    static String encode(Entry e) {
+        return e.id() + "\t" + e.userId() + "\t" + e.date() + "\t" + e.type().name() + "\t" + e.amount() + "\t"
+                + Base64.getEncoder().encodeToString(e.category().getBytes(StandardCharsets.UTF_8)) + "\t"
+                + e.title() + "\t" + (e.description() == null ? NULL : e.description()) + "\n";
+    }
+
+    static Entry decode(String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length != 8) {
+            throw new IllegalArgumentException("Expected 8 fields, got " + f.length);
+        }
+        return new Entry(Long.parseLong(f[0]), Long.parseLong(f[1]), LocalDateTime.parse(f[2]),
+                PaymentType.valueOf(f[3]), Double.parseDouble(f[4]),
+                new String(Base64.getDecoder().decode(f[5]), StandardCharsets.UTF_8),
+                f[6], f[7].equals(NULL) ? null : f[7]);
+    }
+
+    // title and description are stored encrypted, as in the payment table
+    record Entry(long id, long userId, LocalDateTime date, PaymentType type, double amount, String category,
+                 String title, @Nullable String description) {
+    }
+
+    record Journaled(Entry entry, Segment segment) {
+    }
+
+    static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean deleted = new AtomicBoolean();
+        private volatile boolean sealed;
+        private long size;
+
+        private Segment(Path path, FileChannel channel, long size) {
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+}
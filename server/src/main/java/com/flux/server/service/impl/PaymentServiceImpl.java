@@ -1,44 +1,71 @@
 package com.flux.server.service.impl;
 
+import com.flux.server.config.CacheConfig;
 import com.flux.server.dto.BalanceDto;
+import com.flux.server.dto.BulkPaymentResultDto;
 import com.flux.server.dto.PaymentDTO;
+import com.flux.server.dto.PaymentPageDto;
+import com.flux.server.dto.SpendingAnalyticsDto;
+import com.flux.server.entity.MonthlyBalance;
 import com.flux.server.entity.Payment;
+import com.flux.server.entity.PaymentType;
 import com.flux.server.entity.User;
+import com.flux.server.mapper.PaymentMapper;
+import com.flux.server.repository.MonthlyBalanceRepository;
 import com.flux.server.repository.PaymentRepository;
-import com.flux.server.repository.UserRepository;
 import com.flux.server.service.PaymentService;
 import com.flux.server.utils.EncryptionUtils;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.Nullable;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "flux.service", histogram = true)
 public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final UserReferenceResolver userReferenceResolver;
+    private final PaymentMapper paymentMapper;
     private final EncryptionUtils encryptionUtils;
-
+    private final MonthlyBalanceRepository monthlyBalanceRepository;
+    private final PaymentExporter paymentExporter;
+    private final PaymentBulkImporter paymentBulkImporter;
+    private final SpendingAnalytics spendingAnalytics;
+    private final MonthlyBalanceRecorder monthlyBalanceRecorder;
+    // only present when app.payments.write-behind.enabled=true
+    private final ObjectProvider<PaymentWriteBehind> paymentWriteBehind;
+
+    // The monthly_balance rollup is always maintained; this switches getUserBalance to read from it
+    @Value("${app.balance.rollup-enabled:false}")
+    private boolean rollupEnabled;
 
     @Override
+    @Transactional
     public @Nullable PaymentDTO addPayment(PaymentDTO paymentDTO) {
 
-        User user = userRepository.findById(paymentDTO.getUserId()).orElseThrow
-                (() -> new RuntimeException("User not found"));
+        User user = userReferenceResolver.reference(paymentDTO.getUserId());
 
-        Payment payment = modelMapper.map(paymentDTO, Payment.class);
+        Payment payment = paymentMapper.toEntity(paymentDTO);
         payment.setUser(user);
-        payment.setDate(paymentDTO.getDate());
 
         String originalTitle = payment.getTitle();
         String originalDescription = payment.getDescription();
@@ -49,8 +76,9 @@ public class PaymentServiceImpl implements PaymentService {
             payment.setDescription(encryptionUtils.encrypt(originalDescription));
 
         paymentRepository.save(payment);
+        applyToRollup(payment, 1);
 
-        PaymentDTO responseData = modelMapper.map(payment, PaymentDTO.class);
+        PaymentDTO responseData = paymentMapper.toDto(payment);
 
         responseData.setTitle(originalTitle);
         responseData.setDescription(originalDescription);
@@ -60,10 +88,23 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    public @Nullable PaymentDTO submitPayment(PaymentDTO paymentDTO) {
+        PaymentWriteBehind writer = paymentWriteBehind.getIfAvailable();
+        return writer == null ? null : writer.submit(paymentDTO);
+    }
+
+    @Override
+    public List<BulkPaymentResultDto> addPayments(Long userId, List<PaymentDTO> paymentDTOs) {
+        return paymentBulkImporter.importPayments(userId, paymentDTOs);
+    }
+
+    @Override
+    @Transactional
     public @Nullable PaymentDTO deletePayment(Long id) {
         Payment payment = paymentRepository.findById(id).orElseThrow(() -> new RuntimeException("Payment not found"));
         paymentRepository.delete(payment);
-        PaymentDTO responseData = modelMapper.map(payment, PaymentDTO.class);
+        applyToRollup(payment, -1);
+        PaymentDTO responseData = paymentMapper.toDto(payment);
 
         //decrypt the data
         responseData.setTitle(encryptionUtils.decrypt(responseData.getTitle()));
@@ -78,43 +119,97 @@ public class PaymentServiceImpl implements PaymentService {
     public List<PaymentDTO> getPaymentsByUser(Long userId, Pageable pageable) {
 
         List<Payment> payments = paymentRepository.findByUserIdOrderByDateDesc(userId, pageable);
+        return toDecryptedDtos(payments);
+    }
 
+    @Override
+    public PaymentPageDto getPaymentsByUserAfter(Long userId, @Nullable String cursor, int size) {
+        List<Payment> payments;
+        if (cursor == null || cursor.isEmpty()) {
+            payments = paymentRepository.findByUserIdOrderByDateDescIdDesc(userId, Limit.of(size));
+        } else {
+            Cursor position = decodeCursor(cursor);
+            payments = paymentRepository.findPageAfter(userId, position.date(), position.id(), Limit.of(size));
+        }
+
+        // a short page means there is nothing after it
+        String nextCursor = null;
+        if (!payments.isEmpty() && payments.size() == size) {
+            Payment last = payments.get(payments.size() - 1);
+            nextCursor = encodeCursor(last.getDate(), last.getId());
+        }
+        return new PaymentPageDto(toDecryptedDtos(payments), nextCursor);
+    }
 
-        return payments.stream().map(payment -> {
-            PaymentDTO dto = modelMapper.map(payment, PaymentDTO.class);
+    @Override
+    public void exportPayments(Long userId, boolean ndjson, OutputStream out) throws IOException {
+        paymentExporter.export(userId, ndjson, out);
+    }
+
+    private List<PaymentDTO> toDecryptedDtos(List<Payment> payments) {
+        // decrypt titles and descriptions for the whole page in one batch
+        List<String> encrypted = new ArrayList<>(payments.size() * 2);
+        for (Payment payment : payments) {
+            encrypted.add(payment.getTitle());
+            encrypted.add(payment.getDescription());
+        }
+        List<String> decrypted = encryptionUtils.decryptAll(encrypted);
+
+        List<PaymentDTO> result = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentDTO dto = paymentMapper.toDto(payments.get(i));
+            dto.setTitle(decrypted.get(i * 2));
+            dto.setDescription(decrypted.get(i * 2 + 1));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BALANCES, key = "#userId + ':' + #yearMonth")
+    public @Nullable BalanceDto getUserBalance(Long userId, YearMonth yearMonth) {
 
-            try {
-                dto.setTitle(encryptionUtils.decrypt(payment.getTitle()));
+        if (rollupEnabled) {
+            return monthlyBalanceRepository.findById(new MonthlyBalance.Key(userId, yearMonth.atDay(1)))
+                    .map(rollup -> new BalanceDto(rollup.getCredit(), rollup.getDebit()))
+                    .orElseGet(() -> new BalanceDto(0.0, 0.0));
+        }
 
-                if (payment.getDescription() != null && !payment.getDescription().isEmpty()) {
-                    dto.setDescription(encryptionUtils.decrypt(payment.getDescription()));
-                }
-            } catch (Exception e) {
+        LocalDateTime startDateTime = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime endDateTime = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
 
-                System.err.println("Decryption failed for payment ID " + payment.getId());
-            }
-            return dto;
-        }).collect(Collectors.toList());
+        return paymentRepository.getMonthlyBalance(userId, startDateTime, endDateTime);
     }
 
     @Override
-    public @Nullable BalanceDto getUserBalance(Long userId, String month) {
-
-        LocalDate start = LocalDate.parse(month + "-01");
-        LocalDateTime startDateTime = start.atStartOfDay();
-        LocalDateTime endDateTime = start.plusMonths(1).atStartOfDay();
+    public SpendingAnalyticsDto getSpendingAnalytics(Long userId, LocalDate from, LocalDate to, boolean weekly) {
+        return spendingAnalytics.analyze(userId, from, to, weekly);
+    }
 
-        Double monthlyCredit = paymentRepository.getMonthlyCredit(userId, startDateTime, endDateTime);
-        Double monthlyDebit = paymentRepository.getMonthlyDebit(userId, startDateTime, endDateTime);
+    // Opaque to clients: base64url of "<date>|<id>" of the last row on the page
+    private static String encodeCursor(LocalDateTime date, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
 
-        if (monthlyCredit == null) monthlyCredit = 0.0;
-        if (monthlyDebit == null) monthlyDebit = 0.0;
+    // IllegalArgumentException for anything that is not a cursor this service issued; the controller answers 400
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new Cursor(LocalDateTime.parse(position[0]), Long.parseLong(position[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
 
-        BalanceDto balanceDto = new BalanceDto();
-        balanceDto.setMonthlyCredit(monthlyCredit);
-        balanceDto.setMonthlyDebit(monthlyDebit);
+    private record Cursor(LocalDateTime date, long id) {
+    }
 
-        return balanceDto;
+    // sign is +1 when a payment is added and -1 when it is removed
+    private void applyToRollup(Payment payment, int sign) {
+        double credit = payment.getType() == PaymentType.CREDIT ? payment.getAmount() * sign : 0.0;
+        double debit = payment.getType() == PaymentType.DEBIT ? payment.getAmount() * sign : 0.0;
+        monthlyBalanceRecorder.record(payment.getUser().getId(), YearMonth.from(payment.getDate()), credit, debit);
     }
 
 
@@ -0,0 +1,326 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.utils.EncryptionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind path for POST /api/payments/async. A request is validated, given its final id, encrypted and
+ * appended to the {@link PaymentJournal}, then acknowledged; a single writer thread drains the queue and
+ * commits whatever has accumulated (up to batch-size rows) as one JDBC batch and one transaction, so a burst
+ * costs a few commits instead of one per request. When queue-capacity payments are waiting, new ones are
+ * rejected after offer-timeout-ms. Committed entries are marked in the journal, and entries left unmarked by a
+ * crash are re-inserted on startup; the insert is ON CONFLICT (id) DO NOTHING, so one that reached the database
+ * just before the crash is not duplicated. A row the database refuses (say, its user was deleted in the meantime)
+ * goes to the journal's dead-letter file rather than being dropped.
+ * <p>
+ * An acknowledged payment is durable but shows up in reads (and balances) only once the writer commits it.
+ */
+@Component
+@ConditionalOnProperty(name = "app.payments.write-behind.enabled", havingValue = "true")
+public class PaymentWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentWriteBehind.class);
+
+    // Must match allocationSize of payment_seq on Payment
+    private static final int ID_BLOCK = 50;
+
+    private static final String INSERT_SQL = "INSERT INTO payment (id, title, amount, type, description, category, date, user_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final UserReferenceResolver userReferenceResolver;
+    private final PaymentRepository paymentRepository;
+    private final EncryptionUtils encryptionUtils;
+    private final MonthlyBalanceRecorder monthlyBalanceRecorder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentJournal journal;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Semaphore slots;
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId = 1;
+    private long lastId = 0;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    private final Counter rejected;
+    private final Counter written;
+    private final Counter deadLettered;
+    private final Timer commitTimer;
+
+    public PaymentWriteBehind(UserReferenceResolver userReferenceResolver,
+                              PaymentRepository paymentRepository,
+                              EncryptionUtils encryptionUtils,
+                              MonthlyBalanceRecorder monthlyBalanceRecorder,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.payments.write-behind.journal-dir:data/payment-journal}") Path journalDir,
+                              @Value("${app.payments.write-behind.segment-bytes:16777216}") long segmentBytes,
+                              @Value("${app.payments.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${app.payments.write-behind.batch-size:500}") int batchSize,
+                              @Value("${app.payments.write-behind.offer-timeout-ms:100}") long offerTimeoutMs) throws IOException {
+        this.userReferenceResolver = userReferenceResolver;
+        this.paymentRepository = paymentRepository;
+        this.encryptionUtils = encryptionUtils;
+        this.monthlyBalanceRecorder = monthlyBalanceRecorder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new PaymentJournal(journalDir, segmentBytes);
+        this.slots = new Semaphore(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        Gauge.builder("flux.payments.write-behind.queued", queue, BlockingQueue::size)
+                .description("Acknowledged payments waiting to be committed").register(meterRegistry);
+        this.rejected = Counter.builder("flux.payments.write-behind.rejected")
+                .description("Payments refused because the queue was full").register(meterRegistry);
+        this.written = Counter.builder("flux.payments.write-behind.written")
+                .description("Payments committed by the writer").register(meterRegistry);
+        this.deadLettered = Counter.builder("flux.payments.write-behind.dead-lettered")
+                .description("Acknowledged payments the database refused, kept in the dead-letter file").register(meterRegistry);
+        this.commitTimer = Timer.builder("flux.payments.write-behind.commit")
+                .description("Duration of one group commit").publishPercentileHistogram().register(meterRegistry);
+    }
+
+    /**
+     * Journals the payment and returns it with its id. Throws {@link RejectedExecutionException} when the queue
+     * stays full for offer-timeout-ms, so the caller can ask the client to retry.
+     */
+    public PaymentDTO submit(PaymentDTO paymentDTO) {
+        String error = PaymentBulkImporter.validate(paymentDTO);
+        if (error != null) {
+            throw new RuntimeException(error);
+        }
+        userReferenceResolver.requireExists(paymentDTO.getUserId());
+
+        if (!running || !acquireSlot()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Payment queue is full");
+        }
+        try {
+            String description = paymentDTO.getDescription();
+            PaymentJournal.Entry entry = new PaymentJournal.Entry(nextId(), paymentDTO.getUserId(), paymentDTO.getDate(),
+                    paymentDTO.getType(), paymentDTO.getAmount(), paymentDTO.getCategory(),
+                    encryptionUtils.encrypt(paymentDTO.getTitle()),
+                    description == null || description.isEmpty() ? description : encryptionUtils.encrypt(description));
+            queue.add(new Pending(entry, journal.append(entry), true));
+
+            PaymentDTO response = new PaymentDTO();
+            response.setId(entry.id());
+            response.setTitle(paymentDTO.getTitle());
+            response.setAmount(paymentDTO.getAmount());
+            response.setDescription(description);
+            response.setCategory(paymentDTO.getCategory());
+            response.setType(paymentDTO.getType());
+            response.setDate(paymentDTO.getDate());
+            response.setUserId(paymentDTO.getUserId());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            slots.release();
+            throw new RuntimeException("Failed to journal payment", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        writer = Thread.ofPlatform().name("payment-write-behind").start(this::run);
+    }
+
+    // Commits what is already queued, then stops; anything still uncommitted stays in the journal
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+            writer.interrupt();
+            writer.join();
+        }
+        journal.close();
+    }
+
+    private boolean acquireSlot() {
+        try {
+            return slots.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (nextId > lastId) {
+                long hi = paymentRepository.nextIdBlock();
+                nextId = hi - ID_BLOCK + 1;
+                lastId = hi;
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private void run() {
+        try {
+            replay();
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            log.warn("Payment writer stopped with {} payments still queued; they are replayed on the next start",
+                    queue.size());
+        }
+    }
+
+    private void replay() throws InterruptedException {
+        List<PaymentJournal.Journaled> entries;
+        try {
+            entries = journal.replay();
+        } catch (IOException e) {
+            log.error("Failed to read the payment journal; leftover entries are retried on the next start", e);
+            return;
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        log.info("Replaying {} journaled payments", entries.size());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Pending> batch = new ArrayList<>();
+            for (PaymentJournal.Journaled journaled : entries.subList(from, Math.min(entries.size(), from + batchSize))) {
+                batch.add(new Pending(journaled.entry(), journaled.segment(), false));
+            }
+            write(batch);
+        }
+    }
+
+    // Retries transient failures with backoff; a batch with a bad row is split so only that row is dead-lettered
+    private void write(List<Pending> batch) throws InterruptedException {
+        long backoff = 100;
+        while (true) {
+            try {
+                commitTimer.record(() -> commit(batch));
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (batch.size() > 1) {
+                    for (Pending pending : batch) {
+                        write(List.of(pending));
+                    }
+                    return;
+                }
+                Pending refused = batch.get(0);
+                try {
+                    journal.deadLetter(refused.entry());
+                } catch (IOException io) {
+                    log.error("Journaled payment {} cannot be stored nor dead-lettered; it is retried on the next start",
+                            refused.entry().id(), io);
+                    release(refused);
+                    return;
+                }
+                deadLettered.increment();
+                log.error("Journaled payment {} cannot be stored; moved to the dead-letter file", refused.entry().id(), e);
+                break;
+            } catch (RuntimeException e) {
+                log.warn("Failed to commit {} payments, retrying in {} ms", batch.size(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+
+        Map<PaymentJournal.Segment, List<Long>> bySegment = new HashMap<>();
+        for (Pending pending : batch) {
+            bySegment.computeIfAbsent(pending.segment(), k -> new ArrayList<>()).add(pending.entry().id());
+            release(pending);
+        }
+        bySegment.forEach(journal::committed);
+    }
+
+    private void release(Pending pending) {
+        if (pending.live()) {
+            slots.release();
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<PaymentJournal.Entry> entries = batch.stream().map(Pending::entry).toList();
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, e) -> {
+                ps.setLong(1, e.id());
+                ps.setString(2, e.title());
+                ps.setDouble(3, e.amount());
+                ps.setShort(4, (short) e.type().ordinal());
+                ps.setString(5, e.description());
+                ps.setString(6, e.category());
+                ps.setObject(7, e.date());
+                ps.setLong(8, e.userId());
+            });
+
+            // only rows that were actually inserted (not already there from before a crash) count towards the rollup
+            Map<UserMonth, double[]> totals = new HashMap<>();
+            int inserted = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                if (counts[0][i] == 0) {
+                    continue;
+                }
+                PaymentJournal.Entry e = entries.get(i);
+                double[] t = totals.computeIfAbsent(new UserMonth(e.userId(), YearMonth.from(e.date())), k -> new double[2]);
+                t[e.type() == PaymentType.CREDIT ? 0 : 1] += e.amount();
+                inserted++;
+            }
+            totals.forEach((key, t) -> monthlyBalanceRecorder.record(key.userId(), key.month(), t[0], t[1]));
+            written.increment(inserted);
+        });
+    }
+
+    // live is false for entries replayed from a previous run, which hold no queue slot
+    private record Pending(PaymentJournal.Entry entry, PaymentJournal.Segment segment, boolean live) {
+    }
+
+    private record UserMonth(Long userId, YearMonth month) {
+    }
+}
@@ -0,0 +1,273 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.BillingRunDto;
+import com.flux.server.entity.BillingCycle;
+import com.flux.server.entity.Payment;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.entity.Subscription;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.repository.SubscriptionRepository;
+import com.flux.server.utils.EncryptionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the payments owed by due subscriptions. Several workers (virtual threads) each repeatedly claim a
+ * chunk of due rows with SELECT ... FOR UPDATE SKIP LOCKED and bill it in its own transaction, so work spreads
+ * across cores and across server instances without two of them billing the same subscription. Within a chunk,
+ * catch-up payments are built in memory (title/description encrypted once per subscription), inserted with JDBC
+ * batching, and the nextBillingDate updates flush as one batch. Every billed cycle is first recorded in the
+ * {@link BillingLedger}, and cycles it has seen before get no payment, so re-running or retrying never bills a
+ * cycle twice. A chunk that fails rolls back alone and its subscriptions are retried one at a time; those that
+ * still fail stay due and are skipped for the rest of the run.
+ */
+@Component
+public class RecurringBillingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringBillingEngine.class);
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final PaymentRepository paymentRepository;
+    private final EncryptionUtils encryptionUtils;
+    private final MonthlyBalanceRecorder monthlyBalanceRecorder;
+    private final BillingLedger billingLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int workers;
+
+    private final Timer runTimer;
+    private final Counter subscriptionsCounter;
+    private final Counter paymentsCounter;
+
+    public RecurringBillingEngine(SubscriptionRepository subscriptionRepository,
+                                  PaymentRepository paymentRepository,
+                                  EncryptionUtils encryptionUtils,
+                                  MonthlyBalanceRecorder monthlyBalanceRecorder,
+                                  BillingLedger billingLedger,
+                                  MeterRegistry meterRegistry,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.billing.chunk-size:100}") int chunkSize,
+                                  @Value("${app.billing.workers:4}") int workers) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.paymentRepository = paymentRepository;
+        this.encryptionUtils = encryptionUtils;
+        this.monthlyBalanceRecorder = monthlyBalanceRecorder;
+        this.billingLedger = billingLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        this.runTimer = Timer.builder("flux.billing.run").description("Duration of a recurring billing run")
+                .register(meterRegistry);
+        this.subscriptionsCounter = Counter.builder("flux.billing.subscriptions")
+                .description("Subscriptions billed").register(meterRegistry);
+        this.paymentsCounter = Counter.builder("flux.billing.payments")
+                .description("Payments generated by billing runs").register(meterRegistry);
+    }
+
+    public BillingRunDto run() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        AtomicInteger subscriptions = new AtomicInteger();
+        AtomicInteger payments = new AtomicInteger();
+        Set<Long> failed = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < workers; i++) {
+                executor.submit(() -> drain(now, failed, subscriptions, payments));
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        subscriptionsCounter.increment(subscriptions.get());
+        paymentsCounter.increment(payments.get());
+
+        BillingRunDto result = new BillingRunDto(subscriptions.get(), payments.get(), elapsed / 1_000_000);
+        log.info("Billing run: {} subscriptions, {} payments in {} ms ({} payments/s), {} failed",
+                result.getSubscriptionsProcessed(), result.getPaymentsGenerated(), result.getDurationMillis(),
+                String.format("%.1f", result.getPaymentsPerSecond()), failed.size());
+        return result;
+    }
+
+    /**
+     * Bills just the given subscriptions, those still active and due once claimed, in chunks of chunk-size.
+     * Used by {@link SubscriptionDueTimer}; rows a concurrent run has already claimed or billed are skipped.
+     */
+    public BillingRunDto billDue(Collection<Long> ids) {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> remaining = new ArrayList<>(ids);
+        Set<Long> failed = new HashSet<>();
+        int subscriptions = 0;
+        int payments = 0;
+
+        for (int from = 0; from < remaining.size(); from += chunkSize) {
+            List<Long> part = remaining.subList(from, Math.min(remaining.size(), from + chunkSize));
+            ChunkResult chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> bill(subscriptionRepository.claimDue(part, now), now));
+            } catch (RuntimeException e) {
+                log.warn("Billing chunk of {} due subscriptions failed, retrying them one by one", part.size(), e);
+                chunk = billOneByOne(part, now, failed);
+            }
+            if (chunk != null) {
+                subscriptions += chunk.subscriptions();
+                payments += chunk.payments();
+            }
+        }
+
+        subscriptionsCounter.increment(subscriptions);
+        paymentsCounter.increment(payments);
+        return new BillingRunDto(subscriptions, payments, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Claims and bills chunks until nothing due is left unclaimed, skipping subscriptions that failed this run
+    private void drain(LocalDateTime now, Set<Long> failed, AtomicInteger subscriptions, AtomicInteger payments) {
+        while (true) {
+            List<Long> claimed = new ArrayList<>();
+            ChunkResult chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> billChunk(now, failed, claimed));
+            } catch (RuntimeException e) {
+                // only this chunk rolled back; retry its rows individually so one bad subscription
+                // doesn't hold back the rest of the chunk, or stop this worker
+                log.warn("Billing chunk of {} subscriptions failed, retrying them one by one", claimed.size(), e);
+                chunk = billOneByOne(claimed, now, failed);
+            }
+            if (chunk == null || claimed.isEmpty()) {
+                return;
+            }
+            subscriptions.addAndGet(chunk.subscriptions());
+            payments.addAndGet(chunk.payments());
+        }
+    }
+
+    private ChunkResult billChunk(LocalDateTime now, Set<Long> failed, List<Long> claimed) {
+        // -1 keeps the NOT IN list non-empty
+        List<Long> excluded = new ArrayList<>(failed);
+        excluded.add(-1L);
+        List<Subscription> due = subscriptionRepository.claimDueChunk(now, chunkSize, excluded);
+        due.forEach(sub -> claimed.add(sub.getId()));
+        return bill(due, now);
+    }
+
+    // Subscriptions that fail on their own are left due (and skipped for the rest of the run)
+    private ChunkResult billOneByOne(List<Long> ids, LocalDateTime now, Set<Long> failed) {
+        int subscriptions = 0;
+        int payments = 0;
+        for (Long id : ids) {
+            try {
+                ChunkResult one = transactionTemplate.execute(status ->
+                        bill(subscriptionRepository.claimDue(List.of(id), now), now));
+                if (one != null) {
+                    subscriptions += one.subscriptions();
+                    payments += one.payments();
+                }
+            } catch (RuntimeException e) {
+                failed.add(id);
+                log.error("Billing subscription {} failed; it stays due for the next run", id, e);
+            }
+        }
+        return new ChunkResult(subscriptions, payments);
+    }
+
+    private ChunkResult bill(List<Subscription> due, LocalDateTime now) {
+        if (due.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
+
+        // Catch up on missed billing cycles (e.g. if the server was down), all dates computed up front
+        List<BillingLedger.Cycle> cycles = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int i = 0; i < due.size(); i++) {
+            Subscription sub = due.get(i);
+            BillingSchedule.Missed missed = BillingSchedule.missed(sub.getNextBillingDate(), sub.getBillingCycle(), now);
+            for (LocalDateTime billingDate : missed.dates()) {
+                cycles.add(new BillingLedger.Cycle(sub.getId(), billingDate));
+                owners.add(i);
+            }
+            // flushed with the rest of the chunk as batched updates on commit
+            sub.setNextBillingDate(missed.next());
+        }
+
+        // a cycle that is already in the ledger was billed before and gets no second payment
+        boolean[] fresh = billingLedger.record(cycles);
+
+        List<String> titles = encryptionUtils.decryptAll(due.stream().map(Subscription::getTitle).toList());
+        String[] encryptedTitles = new String[due.size()];
+        String[] encryptedDescriptions = new String[due.size()];
+        List<Payment> payments = new ArrayList<>();
+        Map<UserMonth, Double> debitByMonth = new HashMap<>();
+
+        for (int j = 0; j < cycles.size(); j++) {
+            if (!fresh[j]) {
+                continue;
+            }
+            int i = owners.get(j);
+            Subscription sub = due.get(i);
+            if (encryptedTitles[i] == null) {
+                encryptedTitles[i] = encryptionUtils.encrypt(titles.get(i));
+                encryptedDescriptions[i] = encryptionUtils.encrypt("Auto-logged payment for subscription: " + titles.get(i));
+            }
+            LocalDateTime billingDate = cycles.get(j).date();
+
+            Payment payment = new Payment();
+            payment.setUser(sub.getUser());
+            payment.setTitle(encryptedTitles[i]);
+            payment.setDescription(encryptedDescriptions[i]);
+            payment.setAmount(sub.getAmount());
+            payment.setCategory(sub.getCategory());
+            payment.setType(PaymentType.DEBIT);
+            payment.setDate(billingDate);
+            payments.add(payment);
+
+            debitByMonth.merge(new UserMonth(sub.getUser().getId(), YearMonth.from(billingDate)),
+                    sub.getAmount(), Double::sum);
+        }
+
+        paymentRepository.saveAll(payments);
+        debitByMonth.forEach((key, debit) -> monthlyBalanceRecorder.record(key.userId(), key.month(), 0.0, debit));
+
+        return new ChunkResult(due.size(), payments.size());
+    }
+
+    // One cycle step: the reference behaviour BillingSchedule reproduces in closed form (see BillingScheduleTest)
+    static LocalDateTime advanceBillingDate(LocalDateTime currentDate, BillingCycle cycle) {
+        if (cycle == null) {
+            return currentDate.plusMonths(1);
+        }
+        return switch (cycle) {
+            case WEEKLY -> currentDate.plusWeeks(1);
+            case MONTHLY -> currentDate.plusMonths(1);
+            case YEARLY -> currentDate.plusYears(1);
+        };
+    }
+
+    private record ChunkResult(int subscriptions, int payments) {
+    }
+
+    private record UserMonth(Long userId, YearMonth month) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.CategoryTotalDto;
+import com.flux.server.dto.PeriodTotalDto;
+import com.flux.server.dto.SpendingAnalyticsDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds per-category and per-day/week totals for a date range. The range is cut at month boundaries: whole
+ * months that have already ended come from the analytics cache, the rest is queried. Pieces are then merged,
+ * so weeks spanning two months are still reported as one bucket.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpendingAnalytics {
+
+    private final MonthlySpendingLoader monthlySpendingLoader;
+
+    public SpendingAnalyticsDto analyze(Long userId, LocalDate from, LocalDate to, boolean weekly) {
+        YearMonth currentMonth = YearMonth.now();
+        List<SpendingAnalyticsDto> pieces = new ArrayList<>();
+
+        LocalDate cursor = from;
+        while (cursor.isBefore(to)) {
+            YearMonth month = YearMonth.from(cursor);
+            LocalDate monthEnd = month.plusMonths(1).atDay(1);
+            LocalDate pieceEnd = monthEnd.isBefore(to) ? monthEnd : to;
+
+            boolean wholeMonth = cursor.equals(month.atDay(1)) && pieceEnd.equals(monthEnd);
+            if (wholeMonth && month.isBefore(currentMonth)) {
+                pieces.add(monthlySpendingLoader.loadClosedMonth(userId, month));
+            } else {
+                pieces.add(monthlySpendingLoader.loadRange(userId, cursor, pieceEnd));
+            }
+            cursor = pieceEnd;
+        }
+
+        return merge(pieces, weekly);
+    }
+
+    // Builds new DTOs; the pieces may be cached instances and are left untouched
+    private static SpendingAnalyticsDto merge(List<SpendingAnalyticsDto> pieces, boolean weekly) {
+        Map<String, CategoryTotalDto> categories = new LinkedHashMap<>();
+        Map<String, PeriodTotalDto> periods = new LinkedHashMap<>();
+
+        for (SpendingAnalyticsDto piece : pieces) {
+            for (CategoryTotalDto c : piece.getCategories()) {
+                categories.merge(c.getCategory() + '|' + c.getType(),
+                        new CategoryTotalDto(c.getCategory(), c.getType(), c.getTotal(), c.getCount()),
+                        (a, b) -> {
+                            a.setTotal(a.getTotal() + b.getTotal());
+                            a.setCount(a.getCount() + b.getCount());
+                            return a;
+                        });
+            }
+            for (PeriodTotalDto p : piece.getPeriods()) {
+                LocalDate bucket = weekly ? p.getPeriod().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : p.getPeriod();
+                periods.merge(bucket + "|" + p.getType(), new PeriodTotalDto(bucket, p.getType(), p.getTotal()),
+                        (a, b) -> {
+                            a.setTotal(a.getTotal() + b.getTotal());
+                            return a;
+                        });
+            }
+        }
+
+        List<CategoryTotalDto> categoryList = new ArrayList<>(categories.values());
+        categoryList.sort(Comparator.comparing(CategoryTotalDto::getTotal).reversed());
+        List<PeriodTotalDto> periodList = new ArrayList<>(periods.values());
+        periodList.sort(Comparator.comparing(PeriodTotalDto::getPeriod).thenComparing(PeriodTotalDto::getType));
+        return new SpendingAnalyticsDto(categoryList, periodList);
+    }
+}
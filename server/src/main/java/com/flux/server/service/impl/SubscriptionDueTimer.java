@@ -0,0 +1,200 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.BillingRunDto;
+import com.flux.server.entity.SubscriptionStatus;
+import com.flux.server.repository.SubscriptionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bills subscriptions close to their due time instead of up to an hour late. Active subscriptions falling due
+ * within the horizon are held in a priority queue ordered by nextBillingDate, and a dispatcher thread sleeps
+ * until the earliest one is due, then bills everything due at that point by id. The queue is topped up from
+ * idx_subscription_active_due every refill interval (the horizon must be at least that long, so every row is
+ * loaded before it falls due) and kept current by the subscription service on add/update/delete. Rows billed
+ * elsewhere leave stale entries behind; those are no-ops, as billing re-checks status and date when claiming.
+ * The hourly {@link com.flux.server.scheduler.SubscriptionScheduler} run stays as the reconciliation pass.
+ */
+@Component
+public class SubscriptionDueTimer {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionDueTimer.class);
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final RecurringBillingEngine recurringBillingEngine;
+    private final Duration horizon;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(Comparator.comparing(Due::at));
+    // the live due time per id; queue entries that disagree with it are stale and skipped
+    private final Map<Long, LocalDateTime> scheduled = new HashMap<>();
+    private volatile boolean running = true;
+    private Thread dispatcher;
+
+    public SubscriptionDueTimer(SubscriptionRepository subscriptionRepository,
+                                RecurringBillingEngine recurringBillingEngine,
+                                @Value("${app.billing.timer.horizon-ms:1200000}") long horizonMs) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.recurringBillingEngine = recurringBillingEngine;
+        this.horizon = Duration.ofMillis(horizonMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        dispatcher = Thread.ofPlatform().daemon().name("subscription-due-timer").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.billing.timer.refill-ms:600000}")
+    public void refill() {
+        List<SubscriptionRepository.DueSubscription> due =
+                subscriptionRepository.findActiveDueBefore(LocalDateTime.now().plus(horizon));
+        lock.lock();
+        try {
+            for (SubscriptionRepository.DueSubscription sub : due) {
+                put(sub.getId(), sub.getNextBillingDate());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called by the subscription service after a change; inside a transaction it applies on commit
+    public void onChanged(Long id, SubscriptionStatus status, LocalDateTime nextBillingDate) {
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                if (status == SubscriptionStatus.ACTIVE && nextBillingDate != null
+                        && nextBillingDate.isBefore(LocalDateTime.now().plus(horizon))) {
+                    put(id, nextBillingDate);
+                } else {
+                    // beyond the horizon it is loaded by a later refill
+                    scheduled.remove(id);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public void onDeleted(Long id) {
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                scheduled.remove(id);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    // Caller holds the lock
+    private void put(Long id, LocalDateTime at) {
+        if (at.equals(scheduled.put(id, at))) {
+            return;
+        }
+        queue.add(new Due(id, at));
+        changed.signal();
+    }
+
+    private void run() {
+        while (running) {
+            List<Long> ids;
+            try {
+                ids = takeDue();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (ids.isEmpty()) {
+                continue;
+            }
+            try {
+                BillingRunDto billed = recurringBillingEngine.billDue(ids);
+                log.debug("Due timer billed {} of {} subscriptions, {} payments",
+                        billed.getSubscriptionsProcessed(), ids.size(), billed.getPaymentsGenerated());
+            } catch (RuntimeException e) {
+                // still due in the database: the next refill or the hourly run picks them up again
+                log.warn("Billing {} due subscriptions failed", ids.size(), e);
+            }
+        }
+    }
+
+    // Blocks until at least one entry is due, then removes and returns every id due by now
+    private List<Long> takeDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Due head = queue.peek();
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+                if (!head.at().equals(scheduled.get(head.id()))) {
+                    queue.poll();
+                    continue;
+                }
+                long waitNanos = Duration.between(LocalDateTime.now(), head.at()).toNanos();
+                if (waitNanos > 0) {
+                    changed.awaitNanos(waitNanos);
+                    continue;
+                }
+
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> ids = new ArrayList<>();
+                while ((head = queue.peek()) != null && !head.at().isAfter(now)) {
+                    queue.poll();
+                    if (head.at().equals(scheduled.get(head.id()))) {
+                        scheduled.remove(head.id());
+                        ids.add(head.id());
+                    }
+                }
+                return ids;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Due(Long id, LocalDateTime at) {
+    }
+}
@@ -1,40 +1,39 @@
 package com.flux.server.service.impl;
 
-import com.flux.server.dto.PaymentDTO;
+import com.flux.server.dto.BillingRunDto;
 import com.flux.server.dto.SubscriptionDTO;
 import com.flux.server.entity.Subscription;
 import com.flux.server.entity.User;
+import com.flux.server.mapper.SubscriptionMapper;
 import com.flux.server.repository.SubscriptionRepository;
-import com.flux.server.repository.UserRepository;
-import com.flux.server.service.PaymentService;
 import com.flux.server.service.SubscriptionService;
 import com.flux.server.utils.EncryptionUtils;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "flux.service", histogram = true)
 public class SubscriptionServiceImpl implements SubscriptionService {
 
     private final SubscriptionRepository subscriptionRepository;
-    private final UserRepository userRepository;
-    private final PaymentService paymentService;
+    private final UserReferenceResolver userReferenceResolver;
     private final EncryptionUtils encryptionUtils;
-    private final ModelMapper modelMapper;
+    private final SubscriptionMapper subscriptionMapper;
+    private final RecurringBillingEngine recurringBillingEngine;
+    private final SubscriptionDueTimer subscriptionDueTimer;
 
     @Override
     @Transactional
     public SubscriptionDTO addSubscription(SubscriptionDTO subscriptionDTO) {
-        User user = userRepository.findById(subscriptionDTO.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userReferenceResolver.reference(subscriptionDTO.getUserId());
 
-        Subscription subscription = modelMapper.map(subscriptionDTO, Subscription.class);
+        Subscription subscription = subscriptionMapper.toEntity(subscriptionDTO);
         subscription.setUser(user);
         
         // Encrypt sensitive details before saving
@@ -42,8 +41,10 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         subscription.setTitle(encryptionUtils.encrypt(originalTitle));
 
         Subscription savedSubscription = subscriptionRepository.save(subscription);
+        subscriptionDueTimer.onChanged(savedSubscription.getId(), savedSubscription.getStatus(),
+                savedSubscription.getNextBillingDate());
 
-        SubscriptionDTO response = modelMapper.map(savedSubscription, SubscriptionDTO.class);
+        SubscriptionDTO response = subscriptionMapper.toDto(savedSubscription);
         response.setTitle(originalTitle);
         return response;
     }
@@ -65,8 +66,9 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         subscription.setTitle(encryptionUtils.encrypt(originalTitle));
 
         Subscription savedSubscription = subscriptionRepository.save(subscription);
+        subscriptionDueTimer.onChanged(id, savedSubscription.getStatus(), savedSubscription.getNextBillingDate());
 
-        SubscriptionDTO response = modelMapper.map(savedSubscription, SubscriptionDTO.class);
+        SubscriptionDTO response = subscriptionMapper.toDto(savedSubscription);
         response.setTitle(originalTitle);
         return response;
     }
@@ -77,71 +79,27 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         Subscription subscription = subscriptionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Subscription not found"));
         subscriptionRepository.delete(subscription);
+        subscriptionDueTimer.onDeleted(id);
     }
 
     @Override
     public List<SubscriptionDTO> getSubscriptionsByUser(Long userId) {
         List<Subscription> subscriptions = subscriptionRepository.findByUserIdOrderByNextBillingDateAsc(userId);
 
-        return subscriptions.stream().map(sub -> {
-            SubscriptionDTO dto = modelMapper.map(sub, SubscriptionDTO.class);
-            try {
-                dto.setTitle(encryptionUtils.decrypt(sub.getTitle()));
-            } catch (Exception e) {
-                System.err.println("Decryption failed for subscription ID " + sub.getId());
-            }
-            return dto;
-        }).collect(Collectors.toList());
-    }
+        List<String> titles = encryptionUtils.decryptAll(
+                subscriptions.stream().map(Subscription::getTitle).toList());
 
-    @Override
-    @Transactional
-    public void processRecurringPayments() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Subscription> dueSubscriptions = subscriptionRepository.findByStatusAndNextBillingDateBefore("ACTIVE", now);
-
-        for (Subscription sub : dueSubscriptions) {
-            String decryptedTitle = "Subscription";
-            try {
-                decryptedTitle = encryptionUtils.decrypt(sub.getTitle());
-            } catch (Exception e) {
-                System.err.println("Decryption failed for due subscription ID " + sub.getId());
-            }
-
-            // Loop to catch up on missed billing cycles (e.g. if the server was down)
-            while (sub.getNextBillingDate().isBefore(now)) {
-                // Log a payment using the payment service (which encrypts automatically)
-                PaymentDTO paymentDTO = new PaymentDTO();
-                paymentDTO.setUserId(sub.getUser().getId());
-                paymentDTO.setTitle(decryptedTitle);
-                paymentDTO.setAmount(sub.getAmount());
-                paymentDTO.setCategory(sub.getCategory());
-                paymentDTO.setType("DEBIT");
-                paymentDTO.setDate(sub.getNextBillingDate());
-                paymentDTO.setDescription("Auto-logged payment for subscription: " + decryptedTitle);
-
-                paymentService.addPayment(paymentDTO);
-
-                // Advance the billing date
-                sub.setNextBillingDate(advanceBillingDate(sub.getNextBillingDate(), sub.getBillingCycle()));
-            }
-
-            subscriptionRepository.save(sub);
+        List<SubscriptionDTO> result = new ArrayList<>(subscriptions.size());
+        for (int i = 0; i < subscriptions.size(); i++) {
+            SubscriptionDTO dto = subscriptionMapper.toDto(subscriptions.get(i));
+            dto.setTitle(titles.get(i));
+            result.add(dto);
         }
+        return result;
     }
 
-    private LocalDateTime advanceBillingDate(LocalDateTime currentDate, String cycle) {
-        if (cycle == null) {
-            return currentDate.plusMonths(1);
-        }
-        switch (cycle.toUpperCase()) {
-            case "WEEKLY":
-                return currentDate.plusWeeks(1);
-            case "YEARLY":
-                return currentDate.plusYears(1);
-            case "MONTHLY":
-            default:
-                return currentDate.plusMonths(1);
-        }
+    @Override
+    public BillingRunDto processRecurringPayments() {
+        return recurringBillingEngine.run();
     }
 }
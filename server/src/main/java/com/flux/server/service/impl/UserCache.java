@@ -0,0 +1,48 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.config.CacheConfig;
+import com.flux.server.dto.UserDTO;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * User profiles by id and by email (the login key); both caches hold the same {@link UserDTO}. UserServiceImpl
+ * replaces the entries after every profile write it commits, but only in this instance's caches, and a read that
+ * loaded the row before the write can still put the older profile afterwards. So another instance, or this one
+ * after such a race, may serve a profile older than the last change until the cache TTL (spring.cache.caffeine.spec)
+ * expires it. Profile reads and the login fast path accept that: a stale name or picture at worst makes a login
+ * take the database path and write the profile again.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+
+    private final CacheManager cacheManager;
+
+    public @Nullable UserDTO byId(Long id) {
+        return get(CacheConfig.USERS, id);
+    }
+
+    public @Nullable UserDTO byEmail(String email) {
+        return get(CacheConfig.USERS_BY_EMAIL, email);
+    }
+
+    public void put(UserDTO user) {
+        Cache byId = cacheManager.getCache(CacheConfig.USERS);
+        Cache byEmail = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+        if (byId != null) {
+            byId.put(user.getId(), user);
+        }
+        if (byEmail != null) {
+            byEmail.put(user.getEmail(), user);
+        }
+    }
+
+    private @Nullable UserDTO get(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return cache == null ? null : cache.get(key, UserDTO.class);
+    }
+}
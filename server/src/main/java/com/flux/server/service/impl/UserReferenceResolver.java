@@ -0,0 +1,47 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.entity.User;
+import com.flux.server.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out lazy {@link User} references for write paths that only need the foreign key. Each id is checked
+ * against the database once and then remembered (users are never deleted), so a write is a single insert
+ * instead of a user select followed by the insert.
+ */
+@Component
+public class UserReferenceResolver {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> knownUserIds = Caffeine.newBuilder().maximumSize(100_000).build();
+
+    public UserReferenceResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Must be called inside a transaction/persistence context that will use the reference
+    public User reference(Long userId) {
+        requireExists(userId);
+        return userRepository.getReferenceById(userId);
+    }
+
+    public void requireExists(Long userId) {
+        if (userId == null) {
+            throw new RuntimeException("User not found");
+        }
+        if (knownUserIds.getIfPresent(userId) != null) {
+            return;
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        knownUserIds.put(userId, Boolean.TRUE);
+    }
+
+    // For callers that have just loaded or created the user
+    public void remember(Long userId) {
+        knownUserIds.put(userId, Boolean.TRUE);
+    }
+}
@@ -1,78 +1,121 @@
 package com.flux.server.service.impl;
 
+import com.flux.server.config.CacheConfig;
 import com.flux.server.dto.BudgetDto;
+import com.flux.server.dto.BudgetStatusDto;
 import com.flux.server.dto.UserDTO;
 import com.flux.server.entity.Budget;
 import com.flux.server.entity.User;
+import com.flux.server.mapper.BudgetMapper;
+import com.flux.server.mapper.UserMapper;
 import com.flux.server.repository.BudgetRepository;
+import com.flux.server.repository.MonthlyBalanceRepository;
 import com.flux.server.repository.UserRepository;
 import com.flux.server.service.UserService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "flux.service", histogram = true)
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final BudgetRepository budgetRepository;
-    private final ModelMapper modelMapper;
-
+    private final MonthlyBalanceRepository monthlyBalanceRepository;
+    private final UserReferenceResolver userReferenceResolver;
+    private final UserMapper userMapper;
+    private final BudgetMapper budgetMapper;
+    private final MonthlyCacheEvictor monthlyCacheEvictor;
+    private final UserCache userCache;
+    private final LastLoginRecorder lastLoginRecorder;
+
+    // A returning user with an unchanged Google profile is answered from the cache with no database access;
+    // the login time is written later by LastLoginRecorder. The users row is only updated when name or picture changed.
     @Override
     public UserDTO handleGoogleLogin(String email, String name, String pictureUrl) {
+        UserDTO cached = userCache.byEmail(email);
+        if (cached != null && Objects.equals(cached.getName(), name) && Objects.equals(cached.getPictureUrl(), pictureUrl)) {
+            lastLoginRecorder.record(cached.getId());
+            return cached;
+        }
+
         Optional<User> existingUser = userRepository.findByEmail(email);
 
         User user;
         if (existingUser.isPresent()) {
             user = existingUser.get();
-            user.setLastLoginAt(LocalDateTime.now());
-            user.setPictureUrl(pictureUrl);
-            user.setName(name);
+            if (!Objects.equals(user.getName(), name) || !Objects.equals(user.getPictureUrl(), pictureUrl)) {
+                user.setPictureUrl(pictureUrl);
+                user.setName(name);
+                user = userRepository.save(user);
+            }
+            lastLoginRecorder.record(user.getId());
         } else {
             user = new User();
             user.setEmail(email);
             user.setPictureUrl(pictureUrl);
             user.setName(name);
             user.setLastLoginAt(LocalDateTime.now());
+            user = userRepository.save(user);
         }
 
-        User savedUser = userRepository.save(user);
+        return cache(user);
+    }
 
-        return modelMapper.map(savedUser, UserDTO.class);
+    @Override
+    public UserDTO getUser(Long id) {
+        UserDTO cached = userCache.byId(id);
+        if (cached != null) {
+            return cached;
+        }
+        User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
+        return cache(user);
     }
 
     @Override
     public UserDTO updateUserInfo(Long id, UserDTO userDTO) {
 
         User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
+        boolean changed = false;
 
-        if (userDTO.getUsername() != null && !userDTO.getUsername().isEmpty()) {
+        if (userDTO.getUsername() != null && !userDTO.getUsername().isEmpty()
+                && !userDTO.getUsername().equals(user.getUsername())) {
 
             if (userRepository.findByUsername(userDTO.getUsername()).isPresent()) {
                 throw new RuntimeException("Username is present");
             } else {
                 user.setUsername(userDTO.getUsername());
+                changed = true;
             }
 
         }
 
-        if (userDTO.getPhoneNumber() != null && !userDTO.getPhoneNumber().isEmpty()) {
+        if (userDTO.getPhoneNumber() != null && !userDTO.getPhoneNumber().isEmpty()
+                && !userDTO.getPhoneNumber().equals(user.getPhoneNumber())) {
             user.setPhoneNumber(userDTO.getPhoneNumber());
+            changed = true;
         }
 
+        if (changed) {
+            user = userRepository.save(user);
+        }
 
-        User savedUser = userRepository.save(user);
-
-        return modelMapper.map(savedUser, UserDTO.class);
+        return cache(user);
     }
 
     @Override
+    @Transactional
     public BudgetDto addBudget(BudgetDto budgetDto) {
-        User user = userRepository.findById(budgetDto.getUser_id()).orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userReferenceResolver.reference(budgetDto.getUser_id());
 
         Optional<Budget> existingBudget = budgetRepository.findByUserAndMonth(user, budgetDto.getMonth());
 
@@ -81,24 +124,26 @@ public class UserServiceImpl implements UserService {
             budget = existingBudget.get();
             budget.setAmount(budgetDto.getAmount());
         } else {
-            budget = modelMapper.map(budgetDto, Budget.class);
+            budget = budgetMapper.toEntity(budgetDto);
             budget.setUser(user);
         }
 
         Budget savedBudget = budgetRepository.save(budget);
-        return modelMapper.map(savedBudget, BudgetDto.class);
+        monthlyCacheEvictor.evictBudget(user.getId(), savedBudget.getMonth());
+        return budgetMapper.toDto(savedBudget);
 
     }
 
     @Override
-    public BudgetDto getBudget(Long userId, String month) {
-        User user = userRepository.findById(userId).orElseThrow();
+    @Cacheable(cacheNames = CacheConfig.BUDGETS, key = "#userId + ':' + #month")
+    public BudgetDto getBudget(Long userId, YearMonth month) {
+        userReferenceResolver.requireExists(userId);
 
-        Optional<Budget> budget = budgetRepository.findByUserAndMonth(user, month);
+        Optional<Budget> budget = budgetRepository.findByUserIdAndMonth(userId, month);
 
 
         if (budget.isPresent()) {
-            return modelMapper.map(budget.get(), BudgetDto.class);
+            return budgetMapper.toDto(budget.get());
         } else {
             BudgetDto emptyBudget = new BudgetDto();
 
@@ -110,4 +155,22 @@ public class UserServiceImpl implements UserService {
 
 
     }
+
+    private UserDTO cache(User user) {
+        UserDTO dto = userMapper.toDto(user);
+        userCache.put(dto);
+        userReferenceResolver.remember(user.getId());
+        return dto;
+    }
+
+    // Two primary/unique-key lookups; spending comes from the monthly_balance rollup kept by MonthlyBalanceRecorder
+    @Override
+    @Transactional(readOnly = true)
+    public BudgetStatusDto getBudgetStatus(Long userId, YearMonth month) {
+        userReferenceResolver.requireExists(userId);
+
+        double budget = budgetRepository.findByUserIdAndMonth(userId, month).map(Budget::getAmount).orElse(0.0);
+        Double spent = monthlyBalanceRepository.findDebit(userId, month.atDay(1));
+        return new BudgetStatusDto(month, budget, spent == null ? 0.0 : spent);
+    }
 }
\ No newline at end of file
@@ -1,48 +1,211 @@
 package com.flux.server.utils;
 
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 @Component
 public class EncryptionUtils {
 
-    @Value("${app.secret-key}")
-    private String key ;
-
     private static final String ALGORITHM = "AES";
 
+    // Initialised ciphers are expensive to build (provider lookup + key schedule), so keep a few
+    // around per mode. A pool rather than a ThreadLocal so short-lived/virtual threads still reuse them.
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    // Batches of two or more chunks are split and decrypted across cores
+    private static final int PARALLEL_CHUNK = 256;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final SecretKeySpec secretKeySpec;
+    private final BlockingQueue<Cipher> encryptors = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Cipher> decryptors = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
+    private final Timer decryptAllTimer;
+    private final Timer encryptAllTimer;
+    private final Counter decryptAllFields;
+    private final Counter encryptAllFields;
+
+    @Autowired
+    public EncryptionUtils(@Value("${app.secret-key}") String key, MeterRegistry meterRegistry) {
+        this.secretKeySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.encryptTimer = cryptoTimer(meterRegistry, "encrypt");
+        this.decryptTimer = cryptoTimer(meterRegistry, "decrypt");
+        this.decryptAllTimer = cryptoTimer(meterRegistry, "decryptAll");
+        this.encryptAllTimer = cryptoTimer(meterRegistry, "encryptAll");
+        this.decryptAllFields = batchCounter(meterRegistry, "decryptAll");
+        this.encryptAllFields = batchCounter(meterRegistry, "encryptAll");
+    }
+
+    // For use outside Spring (benchmarks); metrics go to a private registry
+    public EncryptionUtils(String key) {
+        this(key, new SimpleMeterRegistry());
+    }
+
+    private static Timer cryptoTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("flux.crypto")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter batchCounter(MeterRegistry registry, String operation) {
+        return Counter.builder("flux.crypto.batch.fields")
+                .description("Fields processed through the batch APIs")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
     public String encrypt(String value) {
+        long start = System.nanoTime();
         try {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
-            byte[] encryptedBytes = cipher.doFinal(value.getBytes());
-            return Base64.getEncoder().encodeToString(encryptedBytes);
+            Cipher cipher = borrow(encryptors, Cipher.ENCRYPT_MODE);
+            byte[] encryptedBytes = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+            String encoded = ENCODER.encodeToString(encryptedBytes);
+            encryptors.offer(cipher);
+            return encoded;
         } catch (Exception e) {
+            // a cipher that threw is not returned to the pool
             throw new RuntimeException("Encryption failed", e);
+        } finally {
+            encryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     public String decrypt(String value) {
-
+        long start = System.nanoTime();
         try {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec);
-            byte[] originalBytes = cipher.doFinal(Base64.getDecoder().decode(value));
-            return new String(originalBytes);
+            Cipher cipher = borrow(decryptors, Cipher.DECRYPT_MODE);
+            byte[] originalBytes = cipher.doFinal(DECODER.decode(value));
+            decryptors.offer(cipher);
+            return new String(originalBytes, StandardCharsets.UTF_8);
 
         } catch (Exception e) {
 //            throw new RuntimeException(e);
             return value;
+        } finally {
+            decryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
+    /**
+     * Decrypts a page of values in one pass, reusing one cipher per chunk instead of one per field.
+     * Same per-element semantics as {@link #decrypt(String)}: null/empty values and values that
+     * fail to decrypt are returned unchanged. The result is index-aligned with {@code values}.
+     */
+    public List<String> decryptAll(List<String> values) {
+        long start = System.nanoTime();
+        int size = values.size();
+        String[] result = new String[size];
+        forEachChunk(size, (from, to) -> decryptRange(values, result, from, to));
+
+        decryptAllTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        decryptAllFields.increment(size);
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Encrypts a batch of values, one cipher per chunk, split across cores for large batches.
+     * Null/empty values are returned unchanged (as addPayment does for an empty description).
+     */
+    public List<String> encryptAll(List<String> values) {
+        long start = System.nanoTime();
+        int size = values.size();
+        String[] result = new String[size];
+        forEachChunk(size, (from, to) -> encryptRange(values, result, from, to));
+
+        encryptAllTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        encryptAllFields.increment(size);
+        return Arrays.asList(result);
+    }
+
+    private void forEachChunk(int size, RangeTask task) {
+        if (size < PARALLEL_CHUNK * 2) {
+            task.run(0, size);
+        } else {
+            int chunks = (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+            IntStream.range(0, chunks).parallel().forEach(c ->
+                    task.run(c * PARALLEL_CHUNK, Math.min(size, (c + 1) * PARALLEL_CHUNK)));
+        }
+    }
+
+    private void encryptRange(List<String> values, String[] result, int from, int to) {
+        try {
+            Cipher cipher = null;
+            for (int i = from; i < to; i++) {
+                String value = values.get(i);
+                result[i] = value;
+                if (value == null || value.isEmpty()) {
+                    continue;
+                }
+                if (cipher == null) {
+                    cipher = borrow(encryptors, Cipher.ENCRYPT_MODE);
+                }
+                result[i] = ENCODER.encodeToString(cipher.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+            }
+            if (cipher != null) {
+                encryptors.offer(cipher);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Encryption failed", e);
+        }
+    }
+
+    private void decryptRange(List<String> values, String[] result, int from, int to) {
+        Cipher cipher = null;
+        for (int i = from; i < to; i++) {
+            String value = values.get(i);
+            result[i] = value;
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            try {
+                if (cipher == null) {
+                    cipher = borrow(decryptors, Cipher.DECRYPT_MODE);
+                }
+                result[i] = new String(cipher.doFinal(DECODER.decode(value)), StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                // keep the raw value, and don't trust the cipher's state after a failure
+                cipher = null;
+            }
+        }
+        if (cipher != null) {
+            decryptors.offer(cipher);
+        }
+    }
+
+    private Cipher borrow(BlockingQueue<Cipher> pool, int mode) throws Exception {
+        Cipher cipher = pool.poll();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(mode, secretKeySpec);
+        }
+        return cipher;
+    }
+
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
 
 }
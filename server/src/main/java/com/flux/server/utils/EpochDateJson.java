@@ -0,0 +1,43 @@
+package com.flux.server.utils;
+
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Response bodies for dates=epoch: the application's JsonMapper, with LocalDateTime written as epoch milliseconds
+ * instead of ISO-8601. Field set and inclusion rules stay Jackson's, so the epoch variant of an endpoint always
+ * matches the default one apart from its timestamps.
+ * <p>
+ * The stored timestamps carry no zone; they are read as {@link ZoneId#systemDefault()} of the JVM at startup.
+ * The same row therefore gives different epoch values on hosts (or after restarts) with a different time zone.
+ */
+@Component
+public class EpochDateJson {
+
+    private final ObjectWriter writer;
+
+    public EpochDateJson(JsonMapper jsonMapper) {
+        ZoneId zone = ZoneId.systemDefault();
+        SimpleModule epochDates = new SimpleModule("epoch-dates").addSerializer(LocalDateTime.class,
+                new StdSerializer<>(LocalDateTime.class) {
+                    @Override
+                    public void serialize(LocalDateTime value, JsonGenerator gen, SerializationContext ctxt) {
+                        gen.writeNumber(value.atZone(zone).toInstant().toEpochMilli());
+                    }
+                });
+        this.writer = jsonMapper.rebuild().addModule(epochDates).build().writer();
+    }
+
+    // Serialized on the calling thread: the value is already in memory, so there is nothing to stream
+    public byte[] body(Object value) {
+        return writer.writeValueAsBytes(value);
+    }
+}
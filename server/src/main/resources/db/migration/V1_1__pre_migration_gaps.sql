@@ -0,0 +1,17 @@
+-- Databases created by ddl-auto before migrations existed are baselined at V1, so V1 never runs there. They lack
+-- what V1 declares beyond those entities: payment_seq, monthly_balance and sequence (not IDENTITY) payment ids.
+-- Bring them to V1's shape here; on a database V1 created every statement is a no-op. idx_payment_user_date_id
+-- is left out: V3 replaces it and drops it only if it exists.
+
+-- Payment ids come from payment_seq; V4 moves the sequence past the ids IDENTITY handed out
+ALTER TABLE payment ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS payment_seq START WITH 1 INCREMENT BY 50;
+
+-- Created empty with the text month V2 expects; V5 fills it from the existing payments
+CREATE TABLE IF NOT EXISTS monthly_balance (
+    user_id bigint           NOT NULL,
+    month   varchar(7)       NOT NULL,
+    credit  double precision NOT NULL,
+    debit   double precision NOT NULL,
+    PRIMARY KEY (user_id, month)
+);
@@ -0,0 +1,59 @@
+-- Schema as created by ddl-auto=update before migrations were introduced. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and only run the later scripts.
+
+CREATE TABLE users (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email         varchar(255)  NOT NULL UNIQUE,
+    username      varchar(255)  UNIQUE,
+    name          varchar(255),
+    phone_number  varchar(255),
+    picture_url   varchar(2000),
+    created_at    timestamp(6),
+    last_login_at timestamp(6)
+);
+
+CREATE SEQUENCE payment_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE payment (
+    id          bigint           PRIMARY KEY,
+    title       varchar(255)     NOT NULL,
+    amount      double precision NOT NULL,
+    type        varchar(255)     NOT NULL,
+    description varchar(255),
+    category    varchar(255)     NOT NULL,
+    date        timestamp(6)     NOT NULL,
+    user_id     bigint           NOT NULL REFERENCES users (id)
+);
+
+CREATE INDEX idx_payment_user_date_id ON payment (user_id, date DESC, id DESC);
+
+CREATE TABLE subscription (
+    id                bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title             varchar(255)     NOT NULL,
+    amount            double precision NOT NULL,
+    category          varchar(255)     NOT NULL,
+    billing_cycle     varchar(255)     NOT NULL,
+    next_billing_date timestamp(6)     NOT NULL,
+    status            varchar(255)     NOT NULL,
+    user_id           bigint           NOT NULL REFERENCES users (id),
+    created_at        timestamp(6),
+    updated_at        timestamp(6)
+);
+
+CREATE TABLE budget (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    amount     double precision NOT NULL,
+    month      varchar(255)     NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    user_id    bigint           NOT NULL REFERENCES users (id),
+    UNIQUE (user_id, month)
+);
+
+CREATE TABLE monthly_balance (
+    user_id bigint           NOT NULL,
+    month   varchar(7)       NOT NULL,
+    credit  double precision NOT NULL,
+    debit   double precision NOT NULL,
+    PRIMARY KEY (user_id, month)
+);
@@ -0,0 +1,27 @@
+-- Enum columns: varchar names -> smallint ordinals of PaymentType, SubscriptionStatus and BillingCycle.
+-- The names were free text from clients, so case and surrounding blanks are ignored. Unrecognised values map
+-- to what the code already treated them as: a non-credit payment is a debit, an unknown cycle bills monthly,
+-- and an unknown status is never billed (paused).
+ALTER TABLE payment
+    ALTER COLUMN type TYPE smallint
+        USING CASE upper(trim(type)) WHEN 'CREDIT' THEN 0 ELSE 1 END;
+
+ALTER TABLE subscription
+    ALTER COLUMN status TYPE smallint
+        USING CASE upper(trim(status)) WHEN 'ACTIVE' THEN 0 WHEN 'CANCELLED' THEN 2 ELSE 1 END,
+    ALTER COLUMN billing_cycle TYPE smallint
+        USING CASE upper(trim(billing_cycle)) WHEN 'WEEKLY' THEN 0 WHEN 'YEARLY' THEN 2 ELSE 1 END;
+
+ALTER TABLE payment ADD CONSTRAINT payment_type_check CHECK (type BETWEEN 0 AND 1);
+ALTER TABLE subscription ADD CONSTRAINT subscription_status_check CHECK (status BETWEEN 0 AND 2);
+ALTER TABLE subscription ADD CONSTRAINT subscription_billing_cycle_check CHECK (billing_cycle BETWEEN 0 AND 2);
+
+-- Months: 'yyyy-MM' text -> DATE holding the first day of the month
+ALTER TABLE budget
+    ALTER COLUMN month TYPE date USING to_date(trim(month), 'YYYY-MM');
+
+ALTER TABLE monthly_balance
+    ALTER COLUMN month TYPE date USING to_date(month, 'YYYY-MM');
+
+-- The billing scan only ever looks at active rows (status = 0)
+CREATE INDEX idx_subscription_active_due ON subscription (next_billing_date) WHERE status = 0;
@@ -0,0 +1,17 @@
+-- Runs outside a transaction (V3__query_indexes.sql.conf) so every index is built CONCURRENTLY: payment keeps
+-- taking writes during the build, and the old index serves queries until the new one is ready.
+
+-- One index for both payment access paths of a user:
+--   keyset pages    ORDER BY date DESC, id DESC with (date, id) < (?, ?)   (scanned backwards)
+--   date ranges     balance and analytics aggregates; INCLUDE makes them index-only scans
+-- Dropped first in case an earlier attempt failed and left an invalid index behind.
+DROP INDEX CONCURRENTLY IF EXISTS idx_payment_user_date_id_covering;
+CREATE INDEX CONCURRENTLY idx_payment_user_date_id_covering ON payment (user_id, date, id) INCLUDE (type, category, amount);
+DROP INDEX CONCURRENTLY IF EXISTS idx_payment_user_date_id;
+
+-- Subscription list per user, ordered by next billing date
+DROP INDEX CONCURRENTLY IF EXISTS idx_subscription_user_next_billing;
+CREATE INDEX CONCURRENTLY idx_subscription_user_next_billing ON subscription (user_id, next_billing_date);
+
+-- The due scan filters on (status, next_billing_date) but only ever for ACTIVE; that is covered by
+-- the partial index idx_subscription_active_due from V2.
@@ -0,0 +1,3 @@
+-- Payment ids moved from IDENTITY to payment_seq; start the sequence past every existing id
+SELECT setval('payment_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM payment) + 50,
+                                      (SELECT last_value FROM payment_seq)));
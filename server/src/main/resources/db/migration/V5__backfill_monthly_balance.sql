@@ -0,0 +1,10 @@
+-- Seed the monthly_balance rollup from existing payments (type 0 = CREDIT, 1 = DEBIT).
+-- From here on MonthlyBalanceRecorder keeps it current on every write.
+INSERT INTO monthly_balance (user_id, month, credit, debit)
+SELECT p.user_id,
+       CAST(date_trunc('month', p.date) AS date),
+       COALESCE(SUM(CASE WHEN p.type = 0 THEN p.amount END), 0),
+       COALESCE(SUM(CASE WHEN p.type = 1 THEN p.amount END), 0)
+FROM payment p
+GROUP BY p.user_id, CAST(date_trunc('month', p.date) AS date)
+ON CONFLICT (user_id, month) DO UPDATE SET credit = EXCLUDED.credit, debit = EXCLUDED.debit;
@@ -0,0 +1,10 @@
+-- One row per billed subscription cycle. The recurring billing engine inserts here with ON CONFLICT DO NOTHING
+-- and only creates the payment when the row is new, so a cycle can never be billed twice, whether a run is
+-- retried, overlaps another run, or a subscription's nextBillingDate is moved back over cycles already billed.
+-- Cycles billed before this table existed are not backfilled (their payments do not reference a subscription).
+CREATE TABLE IF NOT EXISTS billing_ledger (
+    subscription_id bigint       NOT NULL REFERENCES subscription (id) ON DELETE CASCADE,
+    cycle_date      timestamp(6) NOT NULL,
+    billed_at       timestamp(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (subscription_id, cycle_date)
+);
@@ -0,0 +1,123 @@
+package com.flux.server.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks in this package and compares them with the saved baseline (benchmarks/baseline.csv).
+ * Invoked by the "benchmark" Maven profile:
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test                                        # run all, compare with baseline
+ * ./mvnw -Pbenchmark test -Dbenchmark.args=Encryption            # only benchmarks matching a regex
+ * ./mvnw -Pbenchmark test -Dbenchmark.args=--save-baseline       # run all and make the result the new baseline
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    private static final Path RESULTS = Path.of("target", "jmh-results.csv");
+    private static final Path BASELINE = Path.of("benchmarks", "baseline.csv");
+
+    // Changes smaller than this are treated as noise
+    private static final double TOLERANCE = 0.10;
+
+    public static void main(String[] args) throws Exception {
+        boolean saveBaseline = false;
+        String include = BenchmarkRunner.class.getPackageName() + ".*Benchmark";
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (arg.equals("--save-baseline")) {
+                saveBaseline = true;
+            } else {
+                include = arg;
+            }
+        }
+
+        Files.createDirectories(RESULTS.getParent());
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.CSV)
+                .result(RESULTS.toString())
+                .build()).run();
+
+        if (saveBaseline) {
+            Files.createDirectories(BASELINE.getParent());
+            Files.copy(RESULTS, BASELINE, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Saved baseline to " + BASELINE);
+        } else if (Files.exists(BASELINE)) {
+            compare(read(BASELINE), read(RESULTS));
+        } else {
+            System.out.println("No baseline at " + BASELINE + "; run with --save-baseline to create one.");
+        }
+    }
+
+    private static void compare(Map<String, Score> baseline, Map<String, Score> current) {
+        System.out.printf("%n%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.value(), "new");
+                continue;
+            }
+            double change = (now.value() - before.value()) / before.value();
+            // For throughput modes higher is better; for time modes lower is better
+            boolean worse = now.mode().equals("thrpt") ? change < -TOLERANCE : change > TOLERANCE;
+            boolean better = now.mode().equals("thrpt") ? change > TOLERANCE : change < -TOLERANCE;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%n", entry.getKey(), before.value(), now.value(),
+                    change * 100, worse ? "REGRESSION" : better ? "improved" : "");
+        }
+    }
+
+    // JMH CSV: "Benchmark","Mode","Threads","Samples","Score","Score Error (99.9%)","Unit","Param: x",...
+    private static Map<String, Score> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        List<String> header = split(lines.get(0));
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> cols = split(line);
+            StringBuilder key = new StringBuilder(cols.get(0));
+            for (int i = 7; i < cols.size(); i++) {
+                key.append(' ').append(header.get(i).replace("Param: ", "")).append('=').append(cols.get(i));
+            }
+            scores.put(key.toString(), new Score(cols.get(1), Double.parseDouble(cols.get(4))));
+        }
+        return scores;
+    }
+
+    private static List<String> split(String line) {
+        List<String> cols = new ArrayList<>();
+        StringBuilder col = new StringBuilder();
+        boolean quoted = false;
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                cols.add(col.toString());
+                col.setLength(0);
+            } else {
+                col.append(c);
+            }
+        }
+        cols.add(col.toString());
+        return cols;
+    }
+
+    private record Score(String mode, double value) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.flux.server.benchmark;
+
+import com.flux.server.utils.EncryptionUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the pooled {@link EncryptionUtils} against the previous per-call implementation
+ * (new SecretKeySpec + Cipher.getInstance on every field).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptionBenchmark {
+
+    private static final String KEY = "0123456789abcdef";
+    private static final String PLAIN = "Groceries at the corner store";
+
+    private EncryptionUtils pooled;
+    private LegacyEncryption legacy;
+    private String cipherText;
+
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    private List<String> page;
+
+    @Setup
+    public void setup() {
+        pooled = new EncryptionUtils(KEY);
+        legacy = new LegacyEncryption(KEY);
+        cipherText = pooled.encrypt(PLAIN);
+        page = Collections.nCopies(pageSize, cipherText);
+    }
+
+    @Benchmark
+    public String encryptLegacy() {
+        return legacy.encrypt(PLAIN);
+    }
+
+    @Benchmark
+    public String encryptPooled() {
+        return pooled.encrypt(PLAIN);
+    }
+
+    @Benchmark
+    public String decryptLegacy() {
+        return legacy.decrypt(cipherText);
+    }
+
+    @Benchmark
+    public String decryptPooled() {
+        return pooled.decrypt(cipherText);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String decryptPooledContended() {
+        return pooled.decrypt(cipherText);
+    }
+
+    @Benchmark
+    public String[] decryptPageLegacy() {
+        String[] out = new String[page.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = legacy.decrypt(page.get(i));
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<String> decryptPageBatched() {
+        return pooled.decryptAll(page);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EncryptionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // The implementation EncryptionUtils had before the cipher pool, kept here as the baseline
+    static final class LegacyEncryption {
+
+        private final String key;
+
+        LegacyEncryption(String key) {
+            this.key = key;
+        }
+
+        String encrypt(String value) {
+            try {
+                SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "AES");
+                Cipher cipher = Cipher.getInstance("AES");
+                cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
+                return Base64.getEncoder().encodeToString(cipher.doFinal(value.getBytes()));
+            } catch (Exception e) {
+                throw new RuntimeException("Encryption failed", e);
+            }
+        }
+
+        String decrypt(String value) {
+            try {
+                SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "AES");
+                Cipher cipher = Cipher.getInstance("AES");
+                cipher.init(Cipher.DECRYPT_MODE, secretKeySpec);
+                return new String(cipher.doFinal(Base64.getDecoder().decode(value)));
+            } catch (Exception e) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.flux.server.benchmark;
+
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.utils.EpochDateJson;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization CPU for one 500-row payment page through Jackson, with ISO-8601 and ({@link EpochDateJson})
+ * epoch-millisecond timestamps, plus the cost of gzipping it as server.compression does. Bytes on the wire for
+ * each variant, plain and gzipped, are printed once at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+
+    private JsonMapper jsonMapper;
+    private EpochDateJson epochDateJson;
+    private List<PaymentDTO> page;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * 1024);
+
+    @Setup
+    public void setup() throws IOException {
+        jsonMapper = JsonMapper.builder().build();
+        epochDateJson = new EpochDateJson(jsonMapper);
+
+        LocalDateTime now = LocalDateTime.of(2026, 3, 14, 9, 30, 15);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            PaymentDTO dto = new PaymentDTO();
+            dto.setId(100_000L + i);
+            dto.setTitle("Payment " + i);
+            dto.setAmount(10.0 + i * 0.25);
+            // half the rows have no description
+            dto.setDescription(i % 2 == 0 ? null : "Description for payment " + i);
+            dto.setCategory(i % 3 == 0 ? "Food" : "Transport");
+            dto.setType(i % 5 == 0 ? PaymentType.CREDIT : PaymentType.DEBIT);
+            dto.setDate(now.minusHours(i));
+            dto.setUserId(42L);
+            page.add(dto);
+        }
+
+        System.out.printf("%n500-row page bytes (plain / gzip): iso %s, epoch %s%n", sizes(iso()), sizes(epoch()));
+    }
+
+    @Benchmark
+    public int iso() {
+        buffer.reset();
+        jsonMapper.writeValue(buffer, page);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int epoch() {
+        buffer.reset();
+        buffer.writeBytes(epochDateJson.body(page));
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int isoGzip() throws IOException {
+        buffer.reset();
+        try (OutputStream gzip = new GZIPOutputStream(buffer)) {
+            jsonMapper.writeValue(gzip, page);
+        }
+        return buffer.size();
+    }
+
+    private String sizes(int plainBytes) throws IOException {
+        byte[] plain = buffer.toByteArray();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(plain);
+        }
+        return plainBytes + " / " + compressed.size();
+    }
+}
@@ -0,0 +1,86 @@
+package com.flux.server.benchmark;
+
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.Payment;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.entity.User;
+import com.flux.server.mapper.PaymentMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-page cost of converting a 1,000-row payment page to DTOs, reflective ModelMapper vs {@link PaymentMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private ModelMapper modelMapper;
+    private PaymentMapper paymentMapper;
+    private List<Payment> page;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        paymentMapper = new PaymentMapper();
+
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("bench@flux.dev");
+
+        LocalDateTime now = LocalDateTime.now();
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Payment payment = new Payment();
+            payment.setId((long) i);
+            payment.setTitle("title-" + i);
+            payment.setDescription("description-" + i);
+            payment.setAmount(i * 1.5);
+            payment.setCategory("Food");
+            payment.setType(i % 2 == 0 ? PaymentType.DEBIT : PaymentType.CREDIT);
+            payment.setDate(now.minusDays(i));
+            payment.setUser(user);
+            page.add(payment);
+        }
+        // build ModelMapper's type map outside the measurement
+        modelMapper.map(page.get(0), PaymentDTO.class);
+    }
+
+    @Benchmark
+    public List<PaymentDTO> modelMapperPage() {
+        List<PaymentDTO> result = new ArrayList<>(PAGE_SIZE);
+        for (Payment payment : page) {
+            result.add(modelMapper.map(payment, PaymentDTO.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<PaymentDTO> paymentMapperPage() {
+        List<PaymentDTO> result = new ArrayList<>(PAGE_SIZE);
+        for (Payment payment : page) {
+            result.add(paymentMapper.toDto(payment));
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MappingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,76 @@
+package com.flux.server.benchmark;
+
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.Payment;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.entity.User;
+import com.flux.server.mapper.PaymentMapper;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.service.impl.PaymentServiceImpl;
+import com.flux.server.utils.EncryptionUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-to-end page assembly in {@link PaymentServiceImpl#getPaymentsByUser}: batch decryption plus DTO mapping,
+ * with the repository stubbed out so only the service's own work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentListBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int pageSize;
+
+    private PaymentServiceImpl paymentService;
+    private Pageable pageable;
+
+    @Setup
+    public void setup() {
+        EncryptionUtils encryptionUtils = new EncryptionUtils("0123456789abcdef");
+        User user = new User();
+        user.setId(1L);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Payment> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Payment payment = new Payment();
+            payment.setId((long) i);
+            payment.setTitle(encryptionUtils.encrypt("Payment " + i));
+            payment.setDescription(encryptionUtils.encrypt("Description for payment " + i));
+            payment.setAmount(10.0 + i);
+            payment.setCategory("Food");
+            payment.setType(PaymentType.DEBIT);
+            payment.setDate(now.minusHours(i));
+            payment.setUser(user);
+            page.add(payment);
+        }
+
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.findByUserIdOrderByDateDesc(anyLong(), any(Pageable.class))).thenReturn(page);
+
+        paymentService = new PaymentServiceImpl(paymentRepository, null, new PaymentMapper(), encryptionUtils,
+                null, null, null, null, null, null);
+        pageable = PageRequest.of(0, pageSize);
+    }
+
+    @Benchmark
+    public List<PaymentDTO> getPaymentsByUser() {
+        return paymentService.getPaymentsByUser(1L, pageable);
+    }
+}
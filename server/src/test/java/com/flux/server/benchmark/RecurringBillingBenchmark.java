@@ -0,0 +1,105 @@
+package com.flux.server.benchmark;
+
+import com.flux.server.dto.BillingRunDto;
+import com.flux.server.entity.BillingCycle;
+import com.flux.server.entity.Subscription;
+import com.flux.server.entity.SubscriptionStatus;
+import com.flux.server.entity.User;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.repository.SubscriptionRepository;
+import com.flux.server.service.impl.BillingLedger;
+import com.flux.server.service.impl.MonthlyBalanceRecorder;
+import com.flux.server.service.impl.RecurringBillingEngine;
+import com.flux.server.utils.EncryptionUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * One billing run over subscriptions that are {@code missedCycles} cycles behind, covering title decryption,
+ * per-cycle payment generation and the nextBillingDate catch-up loop. Repositories, the billing ledger and the
+ * transaction manager are mocks, so persistence cost is excluded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecurringBillingBenchmark {
+
+    private static final int SUBSCRIPTIONS = 100;
+
+    @Param({"1", "52"})
+    private int missedCycles;
+
+    private RecurringBillingEngine engine;
+    private EncryptionUtils encryptionUtils;
+    private List<Subscription> due;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    @Setup
+    public void setup() {
+        encryptionUtils = new EncryptionUtils("0123456789abcdef");
+
+        SubscriptionRepository subscriptionRepository = mock(SubscriptionRepository.class);
+        // hand out the prepared chunk once per run, then report nothing left
+        when(subscriptionRepository.claimDueChunk(any(LocalDateTime.class), anyInt(), anyCollection()))
+                .thenAnswer(invocation -> claimed.getAndSet(true) ? List.of() : due);
+        // every cycle is new to the ledger
+        BillingLedger billingLedger = mock(BillingLedger.class);
+        when(billingLedger.record(anyList()))
+                .thenAnswer(invocation -> fresh(invocation.<List<?>>getArgument(0).size()));
+
+        engine = new RecurringBillingEngine(subscriptionRepository, mock(PaymentRepository.class),
+                encryptionUtils, mock(MonthlyBalanceRecorder.class), billingLedger, new SimpleMeterRegistry(),
+                mock(PlatformTransactionManager.class), SUBSCRIPTIONS, 1);
+    }
+
+    private static boolean[] fresh(int size) {
+        boolean[] fresh = new boolean[size];
+        Arrays.fill(fresh, true);
+        return fresh;
+    }
+
+    @Setup(Level.Invocation)
+    public void resetDueSubscriptions() {
+        LocalDateTime firstMissed = LocalDateTime.now().minusWeeks(missedCycles).plusHours(1);
+        due = new ArrayList<>(SUBSCRIPTIONS);
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            User user = new User();
+            user.setId((long) i);
+
+            Subscription sub = new Subscription();
+            sub.setId((long) i);
+            sub.setUser(user);
+            sub.setTitle(encryptionUtils.encrypt("Subscription " + i));
+            sub.setAmount(9.99);
+            sub.setCategory("Entertainment");
+            sub.setBillingCycle(BillingCycle.WEEKLY);
+            sub.setStatus(SubscriptionStatus.ACTIVE);
+            sub.setNextBillingDate(firstMissed);
+            due.add(sub);
+        }
+        claimed.set(false);
+    }
+
+    @Benchmark
+    public BillingRunDto run() {
+        return engine.run();
+    }
+}
@@ -0,0 +1,151 @@
+package com.flux.server.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrades a scratch schema on a real Postgres the way existing databases are upgraded: it starts out as
+ * ddl-auto=update created it from the entities before migrations existed, with rows in it, and Flyway baselines
+ * it at V1 (as spring.flyway.baseline-on-migrate and baseline-version do) and runs every later script.
+ *
+ * <pre>EXPLAIN_DB_URL=jdbc:postgresql://localhost:5432/flux ./mvnw test -Dtest=MigrationUpgradeTest</pre>
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+class MigrationUpgradeTest {
+
+    private static final String SCHEMA = "flux_upgrade_check";
+
+    // What ddl-auto=update generated for User, Payment, Subscription and Budget before migrations existed
+    private static final String PRE_MIGRATION_SCHEMA = """
+            CREATE TABLE users (
+                id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                created_at timestamp(6), email varchar(255) NOT NULL UNIQUE, last_login_at timestamp(6),
+                name varchar(255), phone_number varchar(255), picture_url varchar(2000), username varchar(255) UNIQUE);
+            CREATE TABLE payment (
+                amount float(53) NOT NULL, date timestamp(6) NOT NULL,
+                id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                user_id bigint NOT NULL REFERENCES users (id), category varchar(255) NOT NULL,
+                description varchar(255), title varchar(255) NOT NULL, type varchar(255) NOT NULL);
+            CREATE TABLE subscription (
+                amount float(53) NOT NULL, created_at timestamp(6),
+                id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                next_billing_date timestamp(6) NOT NULL, updated_at timestamp(6),
+                user_id bigint NOT NULL REFERENCES users (id), billing_cycle varchar(255) NOT NULL,
+                category varchar(255) NOT NULL, status varchar(255) NOT NULL, title varchar(255) NOT NULL);
+            CREATE TABLE budget (
+                amount float(53) NOT NULL, created_at timestamp(6),
+                id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, updated_at timestamp(6),
+                user_id bigint NOT NULL REFERENCES users (id), month varchar(255) NOT NULL, UNIQUE (user_id, month));
+            """;
+
+    private static final String PRE_MIGRATION_ROWS = """
+            INSERT INTO users (email) VALUES ('upgrade@example.com');
+            INSERT INTO payment (amount, date, user_id, category, title, type) VALUES
+                (100, '2026-09-05 10:00', 1, 'Salary', 't', 'CREDIT'),
+                (40, '2026-09-10 12:00', 1, 'Food', 't', 'DEBIT'),
+                (10, '2026-10-01 08:00', 1, 'Food', 't', 'DEBIT'),
+                (5, '2026-11-02 09:00', 1, 'Refund', 't', ' credit ');
+            INSERT INTO subscription (amount, next_billing_date, user_id, billing_cycle, category, status, title) VALUES
+                (9.99, '2026-11-01 00:00', 1, 'WEEKLY', 'Media', 'ACTIVE', 'a'),
+                (9.99, '2026-11-01 00:00', 1, 'Yearly', 'Media', 'cancelled', 'b'),
+                (9.99, '2026-11-01 00:00', 1, 'MONTHLY', 'Media', 'PAUSED', 'c'),
+                (9.99, '2026-11-01 00:00', 1, 'fortnightly', 'Media', 'unknown', 'd');
+            INSERT INTO budget (amount, user_id, month) VALUES (500, 1, '2026-09'), (600, 1, '2026-10');
+            """;
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void upgrade() throws SQLException {
+        String url = System.getenv("EXPLAIN_DB_URL");
+        String user = System.getenv().getOrDefault("DB_USERNAME", "postgres");
+        String password = System.getenv().getOrDefault("DB_PASSWORD", "postgres");
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + SCHEMA);
+            st.execute("SET search_path TO " + SCHEMA);
+            st.execute(PRE_MIGRATION_SCHEMA);
+            st.execute(PRE_MIGRATION_ROWS);
+        }
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                // as spring.flyway.baseline-on-migrate=true and spring.flyway.baseline-version=1
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                // as spring.flyway.postgresql.transactional-lock=false; V3 builds its indexes concurrently
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load();
+        assertTrue(flyway.migrate().success);
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        if (connection != null) {
+            try (Statement st = connection.createStatement()) {
+                st.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            }
+            connection.close();
+        }
+    }
+
+    @Test
+    void paymentIdsComeFromTheSequencePastExistingRows() throws SQLException {
+        assertEquals("NO", queryString("SELECT is_identity FROM information_schema.columns " +
+                "WHERE table_schema = '" + SCHEMA + "' AND table_name = 'payment' AND column_name = 'id'"));
+        assertTrue(queryDouble("SELECT nextval('payment_seq')") > queryDouble("SELECT MAX(id) FROM payment"));
+    }
+
+    @Test
+    void monthlyBalanceIsSeededFromExistingPayments() throws SQLException {
+        assertEquals(100, queryDouble("SELECT credit FROM monthly_balance WHERE user_id = 1 AND month = '2026-09-01'"));
+        assertEquals(40, queryDouble("SELECT debit FROM monthly_balance WHERE user_id = 1 AND month = '2026-09-01'"));
+        assertEquals(10, queryDouble("SELECT debit FROM monthly_balance WHERE user_id = 1 AND month = '2026-10-01'"));
+    }
+
+    @Test
+    void enumNamesBecomeOrdinals() throws SQLException {
+        // CREDIT, DEBIT, DEBIT, credit
+        assertEquals("0,1,1,0", queryString("SELECT string_agg(type::text, ',' ORDER BY id) FROM payment"));
+        // ACTIVE, CANCELLED, PAUSED, and an unknown status is paused
+        assertEquals("0,2,1,1", queryString("SELECT string_agg(status::text, ',' ORDER BY id) FROM subscription"));
+        // WEEKLY, YEARLY, MONTHLY, and an unknown cycle is monthly
+        assertEquals("0,2,1,1", queryString("SELECT string_agg(billing_cycle::text, ',' ORDER BY id) FROM subscription"));
+    }
+
+    @Test
+    void budgetMonthsBecomeFirstDays() throws SQLException {
+        assertEquals("2026-09-01,2026-10-01",
+                queryString("SELECT string_agg(month::text, ',' ORDER BY month) FROM budget"));
+    }
+
+    private static String queryString(String sql) throws SQLException {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            assertTrue(rs.next(), sql);
+            return rs.getString(1);
+        }
+    }
+
+    private static double queryDouble(String sql) throws SQLException {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            assertTrue(rs.next(), sql);
+            return rs.getDouble(1);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.flux.server.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates a scratch schema on a real Postgres and checks with EXPLAIN that the SQL behind the hot
+ * repository methods is answered from the indexes declared in db/migration. Sequential and bitmap scans
+ * are disabled for the session, so an empty table still shows which index the planner can use.
+ *
+ * <pre>EXPLAIN_DB_URL=jdbc:postgresql://localhost:5432/flux ./mvnw test -Dtest=QueryIndexUsageTest</pre>
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+class QueryIndexUsageTest {
+
+    private static final String SCHEMA = "flux_index_check";
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        String url = System.getenv("EXPLAIN_DB_URL");
+        String user = System.getenv().getOrDefault("DB_USERNAME", "postgres");
+        String password = System.getenv().getOrDefault("DB_PASSWORD", "postgres");
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                // as spring.flyway.postgresql.transactional-lock=false; V3 builds its indexes concurrently
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + SCHEMA);
+            // sets the visibility map so covering indexes can show up as index-only scans
+            st.execute("VACUUM ANALYZE payment");
+            st.execute("SET enable_seqscan = off");
+            st.execute("SET enable_bitmapscan = off");
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        if (connection != null) {
+            try (Statement st = connection.createStatement()) {
+                st.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            }
+            connection.close();
+        }
+    }
+
+    @Test
+    void keysetFirstPage() throws SQLException {
+        // PaymentRepository.findByUserIdOrderByDateDescIdDesc
+        assertUsesIndex("idx_payment_user_date_id_covering",
+                "SELECT * FROM payment WHERE user_id = 1 ORDER BY date DESC, id DESC LIMIT 50");
+    }
+
+    @Test
+    void keysetNextPage() throws SQLException {
+        // PaymentRepository.findPageAfter
+        assertUsesIndex("idx_payment_user_date_id_covering",
+                "SELECT * FROM payment WHERE user_id = 1 AND (date, id) < ('2026-03-01 00:00', 500) " +
+                        "ORDER BY date DESC, id DESC LIMIT 50");
+    }
+
+    @Test
+    void monthlyBalanceIsIndexOnly() throws SQLException {
+        // PaymentRepository.getMonthlyBalance
+        String plan = assertUsesIndex("idx_payment_user_date_id_covering",
+                "SELECT SUM(CASE WHEN type = 0 THEN amount ELSE 0 END), SUM(CASE WHEN type = 1 THEN amount ELSE 0 END) " +
+                        "FROM payment WHERE user_id = 1 AND date >= '2026-03-01' AND date < '2026-04-01'");
+        assertTrue(plan.contains("Index Only Scan"), plan);
+    }
+
+    @Test
+    void categoryTotalsAreIndexOnly() throws SQLException {
+        // PaymentRepository.getCategoryTotals
+        String plan = assertUsesIndex("idx_payment_user_date_id_covering",
+                "SELECT category, type, SUM(amount), COUNT(*) FROM payment " +
+                        "WHERE user_id = 1 AND date >= '2026-03-01' AND date < '2026-04-01' GROUP BY category, type");
+        assertTrue(plan.contains("Index Only Scan"), plan);
+    }
+
+    @Test
+    void dueSubscriptionClaim() throws SQLException {
+        // SubscriptionRepository.claimDueChunk
+        assertUsesIndex("idx_subscription_active_due",
+                "SELECT * FROM subscription WHERE status = 0 AND next_billing_date < '2026-03-01' " +
+                        "AND id NOT IN (-1) ORDER BY id LIMIT 100 FOR UPDATE SKIP LOCKED");
+    }
+
+    @Test
+    void dueTimerRefill() throws SQLException {
+        // SubscriptionRepository.findActiveDueBefore
+        assertUsesIndex("idx_subscription_active_due",
+                "SELECT id, next_billing_date FROM subscription WHERE status = 0 AND next_billing_date < '2026-03-01 00:20'");
+    }
+
+    @Test
+    void subscriptionsByUser() throws SQLException {
+        // SubscriptionRepository.findByUserIdOrderByNextBillingDateAsc
+        assertUsesIndex("idx_subscription_user_next_billing",
+                "SELECT * FROM subscription WHERE user_id = 1 ORDER BY next_billing_date");
+    }
+
+    @Test
+    void monthlyBalanceRow() throws SQLException {
+        // MonthlyBalanceRepository.findDebit / findById
+        assertUsesIndex("monthly_balance_pkey",
+                "SELECT debit FROM monthly_balance WHERE user_id = 1 AND month = '2026-03-01'");
+    }
+
+    private static String assertUsesIndex(String index, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        assertTrue(plan.indexOf(index) >= 0, "Expected " + index + " in plan:\n" + plan);
+        return plan.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.entity.BillingCycle;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Property checks: for random start dates, cycles and gaps, {@link BillingSchedule#missed} must produce exactly
+ * the dates the old loop over {@link RecurringBillingEngine#advanceBillingDate} produced.
+ */
+class BillingScheduleTest {
+
+    private static final List<BillingCycle> CYCLES = new ArrayList<>(Arrays.asList(BillingCycle.values()));
+
+    static {
+        CYCLES.add(null);
+    }
+
+    @Test
+    void matchesStepwiseForRandomDates() {
+        Random random = new Random(42);
+        LocalDate origin = LocalDate.of(1995, 1, 1);
+        for (int i = 0; i < 20_000; i++) {
+            LocalDateTime start = origin.plusDays(random.nextInt(40 * 365))
+                    .atTime(LocalTime.ofSecondOfDay(random.nextInt(86_400)));
+            LocalDateTime now = start.plusMinutes(random.nextLong(-60L * 24 * 30, 60L * 24 * 365 * 12));
+            BillingCycle cycle = CYCLES.get(random.nextInt(CYCLES.size()));
+
+            assertMatchesStepwise(start, cycle, now);
+        }
+    }
+
+    @Test
+    void matchesStepwiseForMonthEndAndLeapDays() {
+        LocalTime time = LocalTime.of(9, 30);
+        List<LocalDateTime> starts = List.of(
+                LocalDateTime.of(2023, 1, 31, 9, 30), LocalDateTime.of(2023, 3, 30, 9, 30),
+                LocalDateTime.of(2023, 8, 31, 9, 30), LocalDateTime.of(2024, 1, 29, 9, 30),
+                LocalDateTime.of(2024, 2, 29, 9, 30), LocalDateTime.of(2024, 12, 31, 9, 30));
+        for (LocalDateTime start : starts) {
+            for (BillingCycle cycle : CYCLES) {
+                // every day for five years (a full leap cycle), at the billing time and just either side of it
+                for (LocalDate day = start.toLocalDate(); day.isBefore(start.toLocalDate().plusYears(5)); day = day.plusDays(1)) {
+                    LocalDateTime at = day.atTime(time);
+                    assertMatchesStepwise(start, cycle, at);
+                    assertMatchesStepwise(start, cycle, at.plusNanos(1));
+                    assertMatchesStepwise(start, cycle, at.minusNanos(1));
+                }
+            }
+        }
+    }
+
+    @Test
+    void monthEndClampStaysClamped() {
+        BillingSchedule.Missed missed = BillingSchedule.missed(LocalDateTime.of(2026, 1, 31, 0, 0),
+                BillingCycle.MONTHLY, LocalDateTime.of(2026, 4, 1, 0, 0));
+
+        assertEquals(List.of(LocalDateTime.of(2026, 1, 31, 0, 0), LocalDateTime.of(2026, 2, 28, 0, 0),
+                LocalDateTime.of(2026, 3, 28, 0, 0)), missed.dates());
+        assertEquals(LocalDateTime.of(2026, 4, 28, 0, 0), missed.next());
+    }
+
+    private static void assertMatchesStepwise(LocalDateTime start, BillingCycle cycle, LocalDateTime now) {
+        List<LocalDateTime> expected = new ArrayList<>();
+        LocalDateTime date = start;
+        while (date.isBefore(now)) {
+            expected.add(date);
+            date = RecurringBillingEngine.advanceBillingDate(date, cycle);
+        }
+
+        BillingSchedule.Missed missed = BillingSchedule.missed(start, cycle, now);
+        String context = start + " " + cycle + " until " + now;
+        assertEquals(expected, missed.dates(), context);
+        assertEquals(date, missed.next(), context);
+    }
+}
@@ -0,0 +1,65 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.entity.Budget;
+import com.flux.server.event.BudgetThresholdCrossedEvent;
+import com.flux.server.repository.BudgetRepository;
+import com.flux.server.repository.MonthlyBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BudgetTrackerTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2026, 3);
+
+    private MonthlyBalanceRepository monthlyBalanceRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private BudgetTracker budgetTracker;
+
+    @BeforeEach
+    void setUp() {
+        BudgetRepository budgetRepository = mock(BudgetRepository.class);
+        monthlyBalanceRepository = mock(MonthlyBalanceRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        budgetTracker = new BudgetTracker(budgetRepository, monthlyBalanceRepository, eventPublisher);
+
+        Budget budget = new Budget();
+        budget.setAmount(100.0);
+        when(budgetRepository.findByUserIdAndMonth(1L, MARCH)).thenReturn(Optional.of(budget));
+    }
+
+    @Test
+    void publishesEachThresholdOnceWhenCrossed() {
+        when(monthlyBalanceRepository.findDebit(1L, MARCH.atDay(1))).thenReturn(105.0);
+
+        budgetTracker.onDebitChanged(1L, MARCH, 30.0);
+
+        ArgumentCaptor<BudgetThresholdCrossedEvent> events = ArgumentCaptor.forClass(BudgetThresholdCrossedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        List<BudgetThresholdCrossedEvent> published = events.getAllValues();
+        assertEquals(0.8, published.get(0).threshold());
+        assertEquals(1.0, published.get(1).threshold());
+    }
+
+    @Test
+    void staysQuietWithinTheSameBand() {
+        when(monthlyBalanceRepository.findDebit(1L, MARCH.atDay(1))).thenReturn(90.0);
+
+        budgetTracker.onDebitChanged(1L, MARCH, 5.0);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,158 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.BillingRunDto;
+import com.flux.server.entity.BillingCycle;
+import com.flux.server.entity.Subscription;
+import com.flux.server.entity.SubscriptionStatus;
+import com.flux.server.entity.User;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.repository.SubscriptionRepository;
+import com.flux.server.repository.UserRepository;
+import com.flux.server.utils.EncryptionUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two billing engines, standing in for two server instances, drain the same set of due subscriptions at once
+ * against a real Postgres. SELECT ... FOR UPDATE SKIP LOCKED must hand every subscription to exactly one of
+ * them: together they process each once, and each is billed (payment and ledger row) once. Runs outside a test
+ * transaction, since the engines commit chunk by chunk; the tables are emptied around each test.
+ *
+ * <pre>EXPLAIN_DB_URL=jdbc:postgresql://localhost:5432/flux ./mvnw test -Dtest=ConcurrentBillingTest</pre>
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+class ConcurrentBillingTest {
+
+    private static final String SCHEMA = "flux_concurrent_billing";
+    private static final int DUE = 500;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("EXPLAIN_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("DB_USERNAME", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("DB_PASSWORD", "postgres"));
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+    }
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+
+    private final EncryptionUtils encryptionUtils = new EncryptionUtils("0123456789abcdef");
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        clear();
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM billing_ledger");
+        jdbcTemplate.update("DELETE FROM payment");
+        jdbcTemplate.update("DELETE FROM subscription");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void twoConcurrentRunsBillEachDueSubscriptionOnce() throws Exception {
+        User user = new User();
+        user.setEmail("billing@example.com");
+        userRepository.save(user);
+        // one missed weekly cycle each
+        LocalDateTime due = LocalDateTime.now().minusHours(1).withNano(0);
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < DUE; i++) {
+            subscriptions.add(subscription(user, due));
+        }
+        subscriptionRepository.saveAll(subscriptions);
+
+        // small chunks, so the two claimers keep meeting each other's locked rows
+        RecurringBillingEngine first = engine();
+        RecurringBillingEngine second = engine();
+        CountDownLatch go = new CountDownLatch(1);
+        BillingRunDto a;
+        BillingRunDto b;
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<BillingRunDto> runA = executor.submit(() -> {
+                go.await();
+                return first.run();
+            });
+            Future<BillingRunDto> runB = executor.submit(() -> {
+                go.await();
+                return second.run();
+            });
+            go.countDown();
+            a = runA.get();
+            b = runB.get();
+        }
+
+        assertEquals(DUE, a.getSubscriptionsProcessed() + b.getSubscriptionsProcessed());
+        assertEquals(DUE, a.getPaymentsGenerated() + b.getPaymentsGenerated());
+        assertEquals(DUE, paymentRepository.count());
+        assertEquals(DUE, count("SELECT COUNT(*) FROM billing_ledger"));
+        assertEquals(DUE, count("SELECT COUNT(DISTINCT subscription_id) FROM billing_ledger"));
+        // every subscription moved on by exactly one cycle
+        assertEquals(DUE, count("SELECT COUNT(*) FROM subscription WHERE next_billing_date = ?", due.plusWeeks(1)));
+    }
+
+    private RecurringBillingEngine engine() {
+        MonthlyBalanceRecorder monthlyBalanceRecorder = mock(MonthlyBalanceRecorder.class);
+        BillingLedger billingLedger = new BillingLedger(jdbcTemplate);
+        return new RecurringBillingEngine(subscriptionRepository, paymentRepository, encryptionUtils,
+                monthlyBalanceRecorder, billingLedger, new SimpleMeterRegistry(), transactionManager, 5, 2);
+    }
+
+    private Subscription subscription(User user, LocalDateTime nextBillingDate) {
+        Subscription sub = new Subscription();
+        sub.setTitle(encryptionUtils.encrypt("Streaming"));
+        sub.setAmount(9.99);
+        sub.setCategory("Entertainment");
+        sub.setBillingCycle(BillingCycle.WEEKLY);
+        sub.setNextBillingDate(nextBillingDate);
+        sub.setStatus(SubscriptionStatus.ACTIVE);
+        sub.setUser(user);
+        return sub;
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count == null ? 0 : count;
+    }
+}
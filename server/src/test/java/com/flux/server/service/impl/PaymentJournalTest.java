@@ -0,0 +1,66 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.entity.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaymentJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void uncommittedEntriesAreReplayedAfterARestart() throws IOException {
+        PaymentJournal journal = new PaymentJournal(dir, 1 << 20);
+        PaymentJournal.Entry first = entry(101, "Food\tand drink", "c2VjcmV0");
+        PaymentJournal.Entry second = entry(102, "Rent", null);
+        journal.committed(journal.append(first), List.of(first.id()));
+        journal.append(second);
+        // simulated crash: no close()
+
+        List<PaymentJournal.Journaled> replayed = new PaymentJournal(dir, 1 << 20).replay();
+
+        // the committed entry must not come back: it may have been deleted since
+        assertEquals(List.of(second), replayed.stream().map(PaymentJournal.Journaled::entry).toList());
+    }
+
+    @Test
+    void fullyCommittedSegmentsAreDeleted() throws IOException {
+        // every append rolls to a new segment
+        PaymentJournal journal = new PaymentJournal(dir, 1);
+        PaymentJournal.Segment a = journal.append(entry(1, "Food", ""));
+        PaymentJournal.Segment b = journal.append(entry(2, "Food", ""));
+        journal.append(entry(3, "Food", ""));
+
+        journal.committed(a, List.of(1L));
+        journal.committed(b, List.of(2L));
+        assertEquals(1, segmentCount());
+
+        PaymentJournal restarted = new PaymentJournal(dir, 1);
+        List<PaymentJournal.Journaled> replayed = restarted.replay();
+        assertEquals(List.of(3L), replayed.stream().map(j -> j.entry().id()).toList());
+        restarted.committed(replayed.get(0).segment(), List.of(3L));
+        restarted.close();
+        assertEquals(0, segmentCount());
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private static PaymentJournal.Entry entry(long id, String category, String description) {
+        return new PaymentJournal.Entry(id, 7L, LocalDateTime.of(2026, 3, 14, 9, 30), PaymentType.DEBIT, 12.5,
+                category, "dGl0bGU=", description);
+    }
+}
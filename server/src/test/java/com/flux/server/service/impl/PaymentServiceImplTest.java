@@ -0,0 +1,83 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.Payment;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.entity.User;
+import com.flux.server.mapper.PaymentMapper;
+import com.flux.server.repository.MonthlyBalanceRepository;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.repository.UserRepository;
+import com.flux.server.utils.EncryptionUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Service rules that need no database. Statement counts for the write and list paths are checked against
+ * Postgres in {@link PaymentStatementCountTest}.
+ */
+class PaymentServiceImplTest {
+
+    private UserRepository userRepository;
+    private PaymentRepository paymentRepository;
+    private PaymentServiceImpl paymentService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        paymentRepository = mock(PaymentRepository.class);
+
+        User user = new User();
+        user.setId(7L);
+        when(userRepository.existsById(7L)).thenReturn(true);
+        when(userRepository.getReferenceById(7L)).thenReturn(user);
+
+        MonthlyBalanceRepository monthlyBalanceRepository = mock(MonthlyBalanceRepository.class);
+        PaymentExporter paymentExporter = mock(PaymentExporter.class);
+        PaymentBulkImporter paymentBulkImporter = mock(PaymentBulkImporter.class);
+        SpendingAnalytics spendingAnalytics = mock(SpendingAnalytics.class);
+        MonthlyBalanceRecorder monthlyBalanceRecorder = mock(MonthlyBalanceRecorder.class);
+        ObjectProvider<PaymentWriteBehind> paymentWriteBehind = mock(ObjectProvider.class);
+        paymentService = new PaymentServiceImpl(paymentRepository, new UserReferenceResolver(userRepository),
+                new PaymentMapper(), new EncryptionUtils("0123456789abcdef"), monthlyBalanceRepository,
+                paymentExporter, paymentBulkImporter, spendingAnalytics, monthlyBalanceRecorder, paymentWriteBehind);
+    }
+
+    @Test
+    void addPaymentRejectsUnknownUser() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> paymentService.addPayment(payment(99L)));
+
+        assertEquals("User not found", e.getMessage());
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    void malformedCursorIsAnIllegalArgument() {
+        // the controller maps IllegalArgumentException to 400
+        assertThrows(IllegalArgumentException.class, () -> paymentService.getPaymentsByUserAfter(7L, "%%%", 5));
+        assertThrows(IllegalArgumentException.class, () -> paymentService.getPaymentsByUserAfter(7L, "bm90IGEgY3Vyc29y", 5));
+    }
+
+    private static PaymentDTO payment(Long userId) {
+        PaymentDTO dto = new PaymentDTO();
+        dto.setUserId(userId);
+        dto.setTitle("Coffee");
+        dto.setAmount(3.5);
+        dto.setCategory("Food");
+        dto.setType(PaymentType.DEBIT);
+        dto.setDate(LocalDateTime.of(2026, 10, 1, 9, 0));
+        return dto;
+    }
+}
@@ -0,0 +1,147 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.Payment;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.entity.User;
+import com.flux.server.mapper.PaymentMapper;
+import com.flux.server.repository.MonthlyBalanceRepository;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.repository.UserRepository;
+import com.flux.server.utils.EncryptionUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts the SQL statements Hibernate prepares for the payment write and list paths, against a scratch schema
+ * on a real Postgres migrated by Flyway: a write must not select the owning user, and a page of payments must
+ * be one query with no user loads behind it. Collaborators outside those paths are mocks.
+ *
+ * <pre>EXPLAIN_DB_URL=jdbc:postgresql://localhost:5432/flux ./mvnw test -Dtest=PaymentStatementCountTest</pre>
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+class PaymentStatementCountTest {
+
+    private static final String SCHEMA = "flux_statement_count";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("EXPLAIN_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("DB_USERNAME", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("DB_PASSWORD", "postgres"));
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MonthlyBalanceRepository monthlyBalanceRepository;
+
+    private final EncryptionUtils encryptionUtils = new EncryptionUtils("0123456789abcdef");
+    private Statistics statistics;
+    private PaymentServiceImpl paymentService;
+    private User user;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        PaymentExporter paymentExporter = mock(PaymentExporter.class);
+        PaymentBulkImporter paymentBulkImporter = mock(PaymentBulkImporter.class);
+        SpendingAnalytics spendingAnalytics = mock(SpendingAnalytics.class);
+        // the rollup has its own statements and is not what is counted here
+        MonthlyBalanceRecorder monthlyBalanceRecorder = mock(MonthlyBalanceRecorder.class);
+        ObjectProvider<PaymentWriteBehind> paymentWriteBehind = mock(ObjectProvider.class);
+        paymentService = new PaymentServiceImpl(paymentRepository, new UserReferenceResolver(userRepository),
+                new PaymentMapper(), encryptionUtils, monthlyBalanceRepository,
+                paymentExporter, paymentBulkImporter, spendingAnalytics, monthlyBalanceRecorder, paymentWriteBehind);
+
+        user = new User();
+        user.setEmail("statements@example.com");
+        entityManager.persist(user);
+        // takes a block from payment_seq, so the counted writes below need no sequence call
+        Payment warmUp = new Payment();
+        warmUp.setTitle(encryptionUtils.encrypt("warm-up"));
+        warmUp.setAmount(1.0);
+        warmUp.setCategory("Food");
+        warmUp.setType(PaymentType.DEBIT);
+        warmUp.setDate(LocalDateTime.of(2026, 1, 1, 0, 0));
+        warmUp.setUser(user);
+        entityManager.persist(warmUp);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void addPaymentChecksTheUserOnceAndInsertsOnly() {
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            paymentService.addPayment(payment(i));
+        }
+        entityManager.flush();
+
+        // one existence check for the user, then the three inserts as one batch
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        assertEquals(3, statistics.getEntityInsertCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listPagesAreOneQueryWithoutUserLoads() {
+        for (int i = 0; i < 3; i++) {
+            paymentService.addPayment(payment(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        assertEquals(4, paymentService.getPaymentsByUser(user.getId(), PageRequest.of(0, 5)).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        String cursor = paymentService.getPaymentsByUserAfter(user.getId(), null, 2).getNextCursor();
+        assertEquals(2, paymentService.getPaymentsByUserAfter(user.getId(), cursor, 2).getItems().size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    private PaymentDTO payment(int i) {
+        PaymentDTO dto = new PaymentDTO();
+        dto.setUserId(user.getId());
+        dto.setTitle("Coffee " + i);
+        dto.setAmount(3.5);
+        dto.setCategory("Food");
+        dto.setType(PaymentType.DEBIT);
+        dto.setDate(LocalDateTime.of(2026, 10, 1, 9, i));
+        return dto;
+    }
+}
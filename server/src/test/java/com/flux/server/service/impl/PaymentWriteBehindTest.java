@@ -0,0 +1,145 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.PaymentDTO;
+import com.flux.server.entity.PaymentType;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.utils.EncryptionUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the writer against an in-memory stand-in for the payment table: ids present in {@code table} are stored,
+ * and rows of users in {@code refusedUsers} fail as a foreign-key violation would.
+ */
+class PaymentWriteBehindTest {
+
+    @TempDir
+    Path dir;
+
+    private final Set<Long> table = ConcurrentHashMap.newKeySet();
+    private final Set<Long> inserts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> refusedUsers = ConcurrentHashMap.newKeySet();
+    private final List<PaymentWriteBehind> writers = new ArrayList<>();
+    private PaymentRepository paymentRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.nextIdBlock()).thenReturn(50L, 100L, 150L);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    Collection<PaymentJournal.Entry> rows = invocation.getArgument(1);
+                    int[] counts = new int[rows.size()];
+                    int i = 0;
+                    for (PaymentJournal.Entry row : rows) {
+                        if (refusedUsers.contains(row.userId())) {
+                            throw new DataIntegrityViolationException("payment_user_id_fkey");
+                        }
+                        inserts.add(row.id());
+                        counts[i++] = table.add(row.id()) ? 1 : 0;
+                    }
+                    return new int[][]{counts};
+                });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (PaymentWriteBehind writer : writers) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void aCommittedPaymentDeletedLaterIsNotReinsertedAfterACrash() throws Exception {
+        PaymentWriteBehind first = start();
+        long id = first.submit(payment(7L)).getId();
+        await(() -> table.contains(id));
+
+        // the user deletes the payment, then the process dies without stop()
+        table.remove(id);
+        inserts.clear();
+        PaymentWriteBehind restarted = start();
+        long next = restarted.submit(payment(7L)).getId();
+        await(() -> table.contains(next));
+
+        assertFalse(table.contains(id));
+        assertEquals(Set.of(next), inserts);
+    }
+
+    @Test
+    void aRefusedPaymentIsKeptInTheDeadLetterFile() throws Exception {
+        refusedUsers.add(8L);
+        PaymentWriteBehind writer = start();
+        long refused = writer.submit(payment(8L)).getId();
+        long stored = writer.submit(payment(7L)).getId();
+        await(() -> table.contains(stored));
+        await(() -> Files.exists(dir.resolve("dead-letter.log")));
+
+        List<String> lines = Files.readAllLines(dir.resolve("dead-letter.log"));
+        assertEquals(1, lines.size());
+        assertEquals(refused, PaymentJournal.decode(lines.get(0)).id());
+        assertTrue(inserts.contains(stored));
+    }
+
+    private PaymentWriteBehind start() throws IOException {
+        PaymentWriteBehind writer = new PaymentWriteBehind(mock(UserReferenceResolver.class), paymentRepository,
+                new EncryptionUtils("0123456789abcdef"), mock(MonthlyBalanceRecorder.class), jdbcTemplate,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), dir, 1 << 20, 100, 10, 100);
+        writer.start();
+        writers.add(writer);
+        return writer;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the payment writer");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static PaymentDTO payment(Long userId) {
+        PaymentDTO dto = new PaymentDTO();
+        dto.setUserId(userId);
+        dto.setTitle("Groceries");
+        dto.setAmount(42.0);
+        dto.setType(PaymentType.DEBIT);
+        dto.setCategory("Food");
+        dto.setDate(LocalDateTime.of(2026, 3, 14, 9, 30));
+        return dto;
+    }
+}
@@ -0,0 +1,107 @@
+package com.flux.server.service.impl;
+
+import com.flux.server.dto.BillingRunDto;
+import com.flux.server.entity.BillingCycle;
+import com.flux.server.entity.Payment;
+import com.flux.server.entity.Subscription;
+import com.flux.server.entity.SubscriptionStatus;
+import com.flux.server.entity.User;
+import com.flux.server.repository.PaymentRepository;
+import com.flux.server.repository.SubscriptionRepository;
+import com.flux.server.utils.EncryptionUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecurringBillingEngineTest {
+
+    private final EncryptionUtils encryptionUtils = new EncryptionUtils("0123456789abcdef");
+
+    private SubscriptionRepository subscriptionRepository;
+    private PaymentRepository paymentRepository;
+    private BillingLedger billingLedger;
+    private RecurringBillingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionRepository = mock(SubscriptionRepository.class);
+        paymentRepository = mock(PaymentRepository.class);
+        billingLedger = mock(BillingLedger.class);
+        when(billingLedger.record(anyList())).thenAnswer(invocation -> {
+            boolean[] fresh = new boolean[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(fresh, true);
+            return fresh;
+        });
+        engine = new RecurringBillingEngine(subscriptionRepository, paymentRepository, encryptionUtils,
+                mock(MonthlyBalanceRecorder.class), billingLedger, new SimpleMeterRegistry(),
+                mock(PlatformTransactionManager.class), 100, 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cyclesAlreadyInTheLedgerAreNotBilledAgain() {
+        LocalDateTime firstMissed = LocalDateTime.now().minusWeeks(2).plusHours(1);
+        Subscription sub = weekly(1L, firstMissed);
+        when(subscriptionRepository.claimDueChunk(any(LocalDateTime.class), anyInt(), anyCollection()))
+                .thenReturn(List.of(sub), List.of());
+        // the older of the two missed cycles was billed by an earlier, interrupted run
+        when(billingLedger.record(anyList())).thenReturn(new boolean[]{false, true});
+
+        BillingRunDto run = engine.run();
+
+        ArgumentCaptor<List<Payment>> saved = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(1, run.getPaymentsGenerated());
+        // the subscription still moves past both cycles
+        assertEquals(firstMissed.plusWeeks(2), sub.getNextBillingDate());
+    }
+
+    @Test
+    void aFailedChunkIsRetriedOneSubscriptionAtATime() {
+        LocalDateTime due = LocalDateTime.now().minusDays(1);
+        when(subscriptionRepository.claimDueChunk(any(LocalDateTime.class), anyInt(), anyCollection()))
+                .thenReturn(List.of(weekly(1L, due), weekly(2L, due)), List.of());
+        when(subscriptionRepository.claimDue(eq(List.of(1L)), any(LocalDateTime.class))).thenReturn(List.of(weekly(1L, due)));
+        when(subscriptionRepository.claimDue(eq(List.of(2L)), any(LocalDateTime.class))).thenReturn(List.of(weekly(2L, due)));
+        when(paymentRepository.saveAll(anyList()))
+                .thenThrow(new RuntimeException("chunk failed"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        BillingRunDto run = engine.run();
+
+        assertEquals(2, run.getSubscriptionsProcessed());
+        assertEquals(2, run.getPaymentsGenerated());
+    }
+
+    private Subscription weekly(Long id, LocalDateTime nextBillingDate) {
+        User user = new User();
+        user.setId(7L);
+        Subscription sub = new Subscription();
+        sub.setId(id);
+        sub.setUser(user);
+        sub.setTitle(encryptionUtils.encrypt("Streaming"));
+        sub.setAmount(9.99);
+        sub.setCategory("Entertainment");
+        sub.setBillingCycle(BillingCycle.WEEKLY);
+        sub.setStatus(SubscriptionStatus.ACTIVE);
+        sub.setNextBillingDate(nextBillingDate);
+        return sub;
+    }
+}